@@ -0,0 +1,96 @@
+package com.example.supermercado_ventas_api.benchmarks;
+
+import com.example.supermercado_ventas_api.SupermercadoVentasApiApplication;
+import com.example.supermercado_ventas_api.models.Inventario;
+import com.example.supermercado_ventas_api.models.Producto;
+import com.example.supermercado_ventas_api.models.Rol;
+import com.example.supermercado_ventas_api.models.Sucursal;
+import com.example.supermercado_ventas_api.models.Usuario;
+import com.example.supermercado_ventas_api.repositories.InventarioRepository;
+import com.example.supermercado_ventas_api.repositories.ProductoRepository;
+import com.example.supermercado_ventas_api.repositories.SucursalRepository;
+import com.example.supermercado_ventas_api.repositories.UsuarioRepository;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Contexto Spring completo sobre H2 en memoria, compartido por los benchmarks de un mismo fork.
+ * Carga una sucursal con {@link #NUMERO_PRODUCTOS} productos y stock suficiente para
+ * que las ventas no se queden sin existencias durante la medición.
+ */
+@State(Scope.Benchmark)
+public class ContextoH2 {
+
+    public static final int NUMERO_PRODUCTOS = 50;
+    public static final String USUARIO = "cajero.benchmark";
+
+    private ConfigurableApplicationContext contexto;
+    private Long idSucursal;
+    private final List<Long> idsProducto = new ArrayList<>();
+
+    @Setup(Level.Trial)
+    public void arrancar() {
+        contexto = SpringApplication.run(SupermercadoVentasApiApplication.class, argumentos().toArray(String[]::new));
+
+        Sucursal sucursal = bean(SucursalRepository.class)
+                .save(Sucursal.builder().nombreSucursal("Sucursal Benchmark").direccion("Calle JMH 1").build());
+        idSucursal = sucursal.getId();
+
+        List<Producto> productos = new ArrayList<>();
+        for (int i = 0; i < NUMERO_PRODUCTOS; i++) {
+            productos.add(Producto.builder()
+                    .nombreProducto("Producto " + i)
+                    .precioProducto(new BigDecimal("1.25").add(BigDecimal.valueOf(i)))
+                    .categoria("Categoria " + (i % 5))
+                    .build());
+        }
+        List<Inventario> inventarios = new ArrayList<>();
+        for (Producto producto : bean(ProductoRepository.class).saveAll(productos)) {
+            idsProducto.add(producto.getId());
+            inventarios.add(Inventario.builder().sucursal(sucursal).producto(producto).cantidad(1_000_000_000).build());
+        }
+        bean(InventarioRepository.class).saveAll(inventarios);
+
+        bean(UsuarioRepository.class)
+                .save(Usuario.builder().username(USUARIO).password("no-se-usa").rol(Rol.CAJERO).build());
+    }
+
+    // Como argumentos de línea de comandos para prevalecer sobre application.properties
+    protected List<String> argumentos() {
+        return new ArrayList<>(List.of(
+                "--spring.datasource.url=jdbc:h2:mem:benchmark;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1",
+                "--spring.datasource.username=sa",
+                "--spring.datasource.password=",
+                "--spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+                "--spring.jpa.show-sql=false",
+                "--spring.main.web-application-type=none",
+                "--spring.main.banner-mode=off",
+                "--logging.level.root=WARN"));
+    }
+
+    @TearDown(Level.Trial)
+    public void detener() {
+        contexto.close();
+    }
+
+    public <T> T bean(Class<T> tipo) {
+        return contexto.getBean(tipo);
+    }
+
+    public Long getIdSucursal() {
+        return idSucursal;
+    }
+
+    public List<Long> getIdsProducto() {
+        return idsProducto;
+    }
+}
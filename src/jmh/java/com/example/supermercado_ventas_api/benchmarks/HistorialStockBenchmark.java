@@ -0,0 +1,78 @@
+package com.example.supermercado_ventas_api.benchmarks;
+
+import com.example.supermercado_ventas_api.dtos.StockHistoricoDTO;
+import com.example.supermercado_ventas_api.models.MovimientoStock;
+import com.example.supermercado_ventas_api.models.TipoMovimiento;
+import com.example.supermercado_ventas_api.repositories.MovimientoStockRepository;
+import com.example.supermercado_ventas_api.repositories.SnapshotStockRepository;
+import com.example.supermercado_ventas_api.services.HistorialStockService;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.Clock;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Consulta del stock de una sucursal en una fecha sobre un libro de {@link #DIAS} días de
+ * movimientos, reconstruyendo desde el principio del libro frente a partir de snapshots diarios.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class HistorialStockBenchmark {
+
+    private static final int DIAS = 30;
+    private static final int MOVIMIENTOS_POR_DIA = 5_000;
+
+    @Param({"false", "true"})
+    private boolean conSnapshots;
+
+    private HistorialStockService historialStockService;
+    private Long idSucursal;
+    private LocalDateTime fecha;
+    private int consulta;
+
+    @Setup(Level.Trial)
+    public void setup(ContextoH2 contexto) {
+        historialStockService = contexto.bean(HistorialStockService.class);
+        MovimientoStockRepository movimientoStockRepository = contexto.bean(MovimientoStockRepository.class);
+        SnapshotStockRepository snapshotStockRepository = contexto.bean(SnapshotStockRepository.class);
+        idSucursal = contexto.getIdSucursal();
+        List<Long> idsProducto = contexto.getIdsProducto();
+
+        LocalDateTime inicio = LocalDateTime.now().minusDays(DIAS + 1);
+        for (int dia = 0; dia < DIAS; dia++) {
+            List<MovimientoStock> movimientos = new ArrayList<>(MOVIMIENTOS_POR_DIA);
+            for (int i = 0; i < MOVIMIENTOS_POR_DIA; i++) {
+                movimientos.add(MovimientoStock.builder()
+                        .tipo(TipoMovimiento.VENTA)
+                        .idSucursal(idSucursal)
+                        .idProducto(idsProducto.get(i % idsProducto.size()))
+                        .cantidad(-1)
+                        .fecha(inicio.plusDays(dia).plusSeconds(i))
+                        .build());
+            }
+            movimientoStockRepository.insertarLote(movimientos);
+            if (conSnapshots) {
+                ZonedDateTime corte = inicio.plusDays(dia + 1).atZone(ZoneId.systemDefault());
+                snapshotStockRepository.generar(Clock.fixed(corte.toInstant(), corte.getZone()));
+            }
+        }
+        // A mitad del último día: la consulta tiene que sumar medio día de movimientos tras el snapshot
+        fecha = inicio.plusDays(DIAS - 1).plusSeconds(MOVIMIENTOS_POR_DIA / 2);
+    }
+
+    // La fecha varía en cada llamada para que H2 no sirva el resultado desde su caché de consultas
+    @Benchmark
+    public List<StockHistoricoDTO> stockEnFecha() {
+        consulta = (consulta + 1) % 1_000;
+        return historialStockService.stockEn(fecha.plusSeconds(consulta), idSucursal);
+    }
+}
@@ -0,0 +1,40 @@
+package com.example.supermercado_ventas_api.benchmarks;
+
+import com.example.supermercado_ventas_api.dtos.InventarioPaginaResponseDTO;
+import com.example.supermercado_ventas_api.services.InventarioService;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Consulta de stock usada por las cajas y el panel de inventario.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class InventarioServiceBenchmark {
+
+    private InventarioService inventarioService;
+    private Long idSucursal;
+    private Long idProducto;
+
+    @Setup(Level.Trial)
+    public void setup(ContextoH2 contexto) {
+        inventarioService = contexto.bean(InventarioService.class);
+        idSucursal = contexto.getIdSucursal();
+        idProducto = contexto.getIdsProducto().get(ContextoH2.NUMERO_PRODUCTOS / 2);
+    }
+
+    @Benchmark
+    public InventarioPaginaResponseDTO verStockSucursal() {
+        return inventarioService.verStock(idSucursal, null, null, ContextoH2.NUMERO_PRODUCTOS);
+    }
+
+    @Benchmark
+    public InventarioPaginaResponseDTO verStockSucursalYProducto() {
+        return inventarioService.verStock(idSucursal, idProducto, null, ContextoH2.NUMERO_PRODUCTOS);
+    }
+}
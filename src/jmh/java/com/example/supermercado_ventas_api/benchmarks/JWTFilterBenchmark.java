@@ -0,0 +1,83 @@
+package com.example.supermercado_ventas_api.benchmarks;
+
+import com.example.supermercado_ventas_api.configs.JWTAuthenticationCache;
+import com.example.supermercado_ventas_api.configs.JWTFilter;
+import com.example.supermercado_ventas_api.configs.JWTUtils;
+import com.example.supermercado_ventas_api.models.Rol;
+import com.example.supermercado_ventas_api.repositories.UsuarioRepository;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.ServletException;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Date;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Coste del filtro JWT por petición: con la autenticación ya cacheada, resolviendo el rol
+ * desde el claim (caché sin aciertos) y con tokens antiguos sin claim, que consultan la BD.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JWTFilterBenchmark {
+
+    private static final String SECRETO = "EstaEsUnaClaveSuperSecretaYDebeTenerMasDe32CaracteresParaFuncionarBien123!";
+
+    private JWTFilter filtroConCache;
+    private JWTFilter filtroSinCache;
+    private String token;
+    private String tokenSinRol;
+
+    @Setup(Level.Trial)
+    public void setup(ContextoH2 contexto) {
+        JWTUtils jwtUtils = new JWTUtils(SECRETO, 3_600_000, "principal", Map.of());
+        UsuarioRepository usuarioRepository = contexto.bean(UsuarioRepository.class);
+
+        filtroConCache = new JWTFilter(jwtUtils, usuarioRepository, new JWTAuthenticationCache(10_000, 300, 3_600_000), new SimpleMeterRegistry());
+        // TTL 0: cada petición vuelve a verificar el token
+        filtroSinCache = new JWTFilter(jwtUtils, usuarioRepository, new JWTAuthenticationCache(10_000, 0, 3_600_000), new SimpleMeterRegistry());
+
+        token = jwtUtils.generateToken(ContextoH2.USUARIO, Rol.CAJERO);
+        tokenSinRol = Jwts.builder()
+                .subject(ContextoH2.USUARIO)
+                .expiration(new Date(System.currentTimeMillis() + 3_600_000))
+                .signWith(Keys.hmacShaKeyFor(SECRETO.getBytes(StandardCharsets.UTF_8)))
+                .compact();
+    }
+
+    @Benchmark
+    public Authentication tokenCacheado() throws ServletException, IOException {
+        return filtrar(filtroConCache, token);
+    }
+
+    @Benchmark
+    public Authentication rolDesdeClaim() throws ServletException, IOException {
+        return filtrar(filtroSinCache, token);
+    }
+
+    @Benchmark
+    public Authentication rolDesdeBaseDeDatos() throws ServletException, IOException {
+        return filtrar(filtroSinCache, tokenSinRol);
+    }
+
+    private Authentication filtrar(JWTFilter filtro, String jwt) throws ServletException, IOException {
+        SecurityContextHolder.clearContext();
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/ventas");
+        request.addHeader("Authorization", "Bearer " + jwt);
+        filtro.doFilter(request, new MockHttpServletResponse(), new MockFilterChain());
+        return SecurityContextHolder.getContext().getAuthentication();
+    }
+}
@@ -0,0 +1,59 @@
+package com.example.supermercado_ventas_api.benchmarks;
+
+import com.example.supermercado_ventas_api.configs.JWTUtils;
+import com.example.supermercado_ventas_api.models.Rol;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import org.openjdk.jmh.annotations.*;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throughput de verificación de tokens: implementación anterior (clave y parser
+ * reconstruidos en cada llamada) frente a JWTUtils con clave y parser precalculados.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JWTUtilsBenchmark {
+
+    private static final String SECRETO = "EstaEsUnaClaveSuperSecretaYDebeTenerMasDe32CaracteresParaFuncionarBien123!";
+    private static final String SECRETO_ANTERIOR = "ClaveAnteriorQueSigueSiendoValidaDuranteLaRotacion!!";
+
+    private JWTUtils jwtUtils;
+    private String token;
+    private String tokenClaveAnterior;
+
+    @Setup
+    public void setup() {
+        jwtUtils = new JWTUtils(SECRETO, 3_600_000, "actual", Map.of("anterior", SECRETO_ANTERIOR));
+        token = jwtUtils.generateToken("cajero", Rol.CAJERO);
+        tokenClaveAnterior = new JWTUtils(SECRETO_ANTERIOR, 3_600_000, "anterior", Map.of())
+                .generateToken("cajero", Rol.CAJERO);
+    }
+
+    @Benchmark
+    public Claims verificarReconstruyendoClaveYParser() {
+        return Jwts.parser()
+                .verifyWith(Keys.hmacShaKeyFor(SECRETO.getBytes(StandardCharsets.UTF_8)))
+                .build()
+                .parseSignedClaims(token)
+                .getPayload();
+    }
+
+    @Benchmark
+    public Claims verificarConParserPrecalculado() {
+        return jwtUtils.parseClaims(token).orElseThrow();
+    }
+
+    @Benchmark
+    public Claims verificarConClaveAnterior() {
+        return jwtUtils.parseClaims(tokenClaveAnterior).orElseThrow();
+    }
+}
@@ -0,0 +1,89 @@
+package com.example.supermercado_ventas_api.benchmarks;
+
+import com.example.supermercado_ventas_api.events.AjusteStockEvent;
+import com.example.supermercado_ventas_api.models.MovimientoStock;
+import com.example.supermercado_ventas_api.models.TipoMovimiento;
+import com.example.supermercado_ventas_api.repositories.InventarioRepository;
+import com.example.supermercado_ventas_api.repositories.MovimientoStockRepository;
+import com.example.supermercado_ventas_api.services.AuditoriaStockService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Coste del libro de movimientos en el camino de escritura del stock: el UPDATE condicional sin
+ * libro, el mismo UPDATE con el INSERT del movimiento dentro de la transacción y el camino actual,
+ * que tras el commit solo deja el movimiento en el buffer que vacía el hilo de auditoría.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class LibroStockBenchmark {
+
+    private TransactionTemplate transaccion;
+    private InventarioRepository inventarioRepository;
+    private MovimientoStockRepository movimientoStockRepository;
+    private AuditoriaStockService auditoriaStockService;
+    private Long idSucursal;
+    private List<Long> idsProducto;
+    private int siguiente;
+
+    @Setup(Level.Trial)
+    public void setup(ContextoH2 contexto) {
+        transaccion = new TransactionTemplate(contexto.bean(PlatformTransactionManager.class));
+        inventarioRepository = contexto.bean(InventarioRepository.class);
+        movimientoStockRepository = contexto.bean(MovimientoStockRepository.class);
+        auditoriaStockService = contexto.bean(AuditoriaStockService.class);
+        idSucursal = contexto.getIdSucursal();
+        idsProducto = contexto.getIdsProducto();
+    }
+
+    // Como hasta ahora: un único UPDATE condicional por producto
+    @Benchmark
+    public int[] soloUpdate() {
+        Long idProducto = siguienteProducto();
+        return transaccion.execute(estado -> descontar(idProducto));
+    }
+
+    @Benchmark
+    public int[] updateEInsertSincrono() {
+        Long idProducto = siguienteProducto();
+        return transaccion.execute(estado -> {
+            int[] filas = descontar(idProducto);
+            movimientoStockRepository.insertarLote(List.of(MovimientoStock.builder()
+                    .tipo(TipoMovimiento.VENTA)
+                    .idSucursal(idSucursal)
+                    .idProducto(idProducto)
+                    .cantidad(-1)
+                    .fecha(LocalDateTime.now())
+                    .build()));
+            return filas;
+        });
+    }
+
+    // Camino actual: el listener AFTER_COMMIT encola el movimiento en el hilo que confirmó
+    @Benchmark
+    public int[] updateYLibroAsincrono() {
+        Long idProducto = siguienteProducto();
+        int[] filas = transaccion.execute(estado -> descontar(idProducto));
+        auditoriaStockService.onAjusteStock(new AjusteStockEvent(TipoMovimiento.VENTA, idSucursal, idProducto, -1));
+        return filas;
+    }
+
+    private int[] descontar(Long idProducto) {
+        return inventarioRepository.descontarStock(idSucursal, Map.of(idProducto, 1));
+    }
+
+    private Long siguienteProducto() {
+        siguiente = (siguiente + 1) % idsProducto.size();
+        return idsProducto.get(siguiente);
+    }
+}
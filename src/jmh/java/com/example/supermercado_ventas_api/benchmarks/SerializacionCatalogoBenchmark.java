@@ -0,0 +1,76 @@
+package com.example.supermercado_ventas_api.benchmarks;
+
+import com.example.supermercado_ventas_api.dtos.ProductoResponseDTO;
+import com.example.supermercado_ventas_api.models.Producto;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.module.blackbird.BlackbirdModule;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Serialización del listado de productos: entidades JPA (respuesta anterior de GET /api/productos)
+ * frente a records DTO mapeados en cada respuesta y frente al listado de DTO ya cacheado, con y sin
+ * el módulo Blackbird. Ejecutar con {@code -prof gc} para obtener los bytes asignados por respuesta
+ * (gc.alloc.rate.norm).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SerializacionCatalogoBenchmark {
+
+    @Param({"100", "1000"})
+    private int productos;
+
+    private ObjectMapper mapper;
+    private ObjectMapper mapperBlackbird;
+    private List<Producto> entidades;
+    private List<ProductoResponseDTO> dtosCacheados;
+
+    @Setup
+    public void setup() {
+        // Mismo builder que usa Spring Boot para el ObjectMapper de la aplicación
+        mapper = Jackson2ObjectMapperBuilder.json().build();
+        mapperBlackbird = Jackson2ObjectMapperBuilder.json().modulesToInstall(new BlackbirdModule()).build();
+
+        entidades = new ArrayList<>(productos);
+        for (long i = 1; i <= productos; i++) {
+            entidades.add(Producto.builder()
+                    .id(i)
+                    .nombreProducto("Producto " + i)
+                    .precioProducto(BigDecimal.valueOf(i, 2))
+                    .categoria("Categoría " + (i % 20))
+                    .build());
+        }
+        dtosCacheados = entidades.stream().map(ProductoResponseDTO::desde).toList();
+    }
+
+    @Benchmark
+    public byte[] entidades() throws Exception {
+        return mapper.writeValueAsBytes(entidades);
+    }
+
+    // Conversión a DTO en cada respuesta, como hace el listado de sucursales
+    @Benchmark
+    public byte[] dtos() throws Exception {
+        return mapper.writeValueAsBytes(entidades.stream().map(ProductoResponseDTO::desde).toList());
+    }
+
+    // Camino actual: el catálogo en caché ya guarda el listado como DTO
+    @Benchmark
+    public byte[] dtosCacheados() throws Exception {
+        return mapper.writeValueAsBytes(dtosCacheados);
+    }
+
+    @Benchmark
+    public byte[] dtosCacheadosBlackbird() throws Exception {
+        return mapperBlackbird.writeValueAsBytes(dtosCacheados);
+    }
+}
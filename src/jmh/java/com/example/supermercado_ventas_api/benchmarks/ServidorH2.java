@@ -0,0 +1,35 @@
+package com.example.supermercado_ventas_api.benchmarks;
+
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.core.env.Environment;
+
+import java.util.List;
+
+/**
+ * {@link ContextoH2} con el servidor web arrancado en un puerto libre, en modo de hilos de
+ * plataforma (pool de Tomcat) o de hilos virtuales, con el mismo pool de Hikari en ambos casos.
+ */
+@State(Scope.Benchmark)
+public class ServidorH2 extends ContextoH2 {
+
+    @Param({"false", "true"})
+    private boolean hilosVirtuales;
+
+    @Override
+    protected List<String> argumentos() {
+        List<String> argumentos = super.argumentos();
+        argumentos.remove("--spring.main.web-application-type=none");
+        argumentos.addAll(List.of(
+                "--server.port=0",
+                "--spring.threads.virtual.enabled=" + hilosVirtuales,
+                "--spring.datasource.hikari.maximum-pool-size=20",
+                "--spring.datasource.hikari.connection-timeout=5000"));
+        return argumentos;
+    }
+
+    public int getPuerto() {
+        return bean(Environment.class).getProperty("local.server.port", Integer.class);
+    }
+}
@@ -0,0 +1,88 @@
+package com.example.supermercado_ventas_api.benchmarks;
+
+import com.example.supermercado_ventas_api.dtos.DetalleRequestDTO;
+import com.example.supermercado_ventas_api.dtos.VentaRequestDTO;
+import com.example.supermercado_ventas_api.dtos.VentaResponseDTO;
+import com.example.supermercado_ventas_api.models.Producto;
+import com.example.supermercado_ventas_api.models.Sucursal;
+import com.example.supermercado_ventas_api.models.Venta;
+import com.example.supermercado_ventas_api.models.VentaDetalle;
+import com.example.supermercado_ventas_api.services.VentaService;
+import org.openjdk.jmh.annotations.*;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Camino caliente del registro de ventas en caja: validación, descuento de stock,
+ * persistencia y publicación de eventos, para carritos de 1, 10 y 50 líneas.
+ * También mide el mapeo de la venta a DTO de respuesta de forma aislada.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class VentaServiceBenchmark {
+
+    @Param({"1", "10", "50"})
+    private int lineas;
+
+    private VentaService ventaService;
+    private VentaRequestDTO carrito;
+    private Venta venta;
+    private MethodHandle mapToDTO;
+
+    @Setup(Level.Trial)
+    public void setup(ContextoH2 contexto) throws ReflectiveOperationException {
+        ventaService = contexto.bean(VentaService.class);
+
+        List<DetalleRequestDTO> detalle = new ArrayList<>();
+        for (Long idProducto : contexto.getIdsProducto().subList(0, lineas)) {
+            detalle.add(new DetalleRequestDTO(idProducto, 1));
+        }
+        carrito = new VentaRequestDTO(contexto.getIdSucursal(), detalle);
+
+        venta = ventaEnMemoria(lineas);
+
+        // mapToDTO es privado: se invoca mediante un MethodHandle resuelto una sola vez
+        mapToDTO = MethodHandles.privateLookupIn(VentaService.class, MethodHandles.lookup())
+                .findVirtual(VentaService.class, "mapToDTO", MethodType.methodType(VentaResponseDTO.class, Venta.class));
+    }
+
+    @Benchmark
+    public VentaResponseDTO registrarVenta() {
+        return ventaService.registrarVenta(carrito);
+    }
+
+    @Benchmark
+    public VentaResponseDTO mapToDTO() throws Throwable {
+        return (VentaResponseDTO) mapToDTO.invoke(ventaService, venta);
+    }
+
+    private static Venta ventaEnMemoria(int lineas) {
+        Venta venta = Venta.builder()
+                .id(1L)
+                .fecha(LocalDateTime.now())
+                .sucursal(Sucursal.builder().id(1L).nombreSucursal("Sucursal Benchmark").direccion("Calle JMH 1").build())
+                .totalVenta(BigDecimal.ZERO)
+                .build();
+        for (int i = 0; i < lineas; i++) {
+            Producto producto = Producto.builder()
+                    .id((long) i)
+                    .nombreProducto("Producto " + i)
+                    .precioProducto(new BigDecimal("1.25"))
+                    .categoria("Categoria")
+                    .build();
+            venta.getDetalles().add(VentaDetalle.builder().venta(venta).producto(producto).cantidad(2).build());
+        }
+        return venta;
+    }
+}
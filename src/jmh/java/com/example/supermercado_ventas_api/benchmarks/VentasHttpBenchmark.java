@@ -0,0 +1,63 @@
+package com.example.supermercado_ventas_api.benchmarks;
+
+import com.example.supermercado_ventas_api.models.Rol;
+import com.example.supermercado_ventas_api.configs.JWTUtils;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Prueba de carga del registro de ventas por HTTP (POST /api/ventas con JWT), con muchos clientes
+ * concurrentes, comparando Tomcat con su pool de hilos de plataforma frente al modo de hilos
+ * virtuales. Mide ventas confirmadas por segundo; cada cliente vende un producto distinto para
+ * que los conflictos de stock no dominen la medición.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 4, time = 10)
+@Measurement(iterations = 3, time = 10)
+@Threads(64)
+@Fork(1)
+public class VentasHttpBenchmark {
+
+    private static final HttpClient CLIENTE = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+
+    @State(Scope.Thread)
+    public static class Cajero {
+
+        private static final AtomicInteger SIGUIENTE = new AtomicInteger();
+
+        private HttpRequest peticion;
+
+        @Setup(Level.Trial)
+        public void setup(ServidorH2 servidor) {
+            String token = servidor.bean(JWTUtils.class).generateToken(ContextoH2.USUARIO, Rol.CAJERO);
+            List<Long> productos = servidor.getIdsProducto();
+            Long idProducto = productos.get(SIGUIENTE.getAndIncrement() % productos.size());
+            String venta = "{\"idSucursal\":" + servidor.getIdSucursal()
+                    + ",\"detalle\":[{\"idProducto\":" + idProducto + ",\"cantidad\":1}]}";
+
+            peticion = HttpRequest.newBuilder(URI.create("http://localhost:" + servidor.getPuerto() + "/api/ventas"))
+                    .header("Authorization", "Bearer " + token)
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofString(venta))
+                    .build();
+        }
+    }
+
+    @Benchmark
+    public int registrarVenta(Cajero cajero) throws IOException, InterruptedException {
+        HttpResponse<Void> respuesta = CLIENTE.send(cajero.peticion, HttpResponse.BodyHandlers.discarding());
+        if (respuesta.statusCode() != 201) {
+            throw new IllegalStateException("Respuesta inesperada: " + respuesta.statusCode());
+        }
+        return respuesta.statusCode();
+    }
+}
@@ -0,0 +1,52 @@
+package com.example.supermercado_ventas_api.configs;
+
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import net.ttddyy.dsproxy.listener.QueryExecutionListener;
+import net.ttddyy.dsproxy.support.ProxyDataSource;
+import net.ttddyy.dsproxy.support.ProxyDataSourceBuilder;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.sql.DataSource;
+import java.util.List;
+
+/**
+ * Envuelve el DataSource con datasource-proxy para contar cada ejecución JDBC (un lote cuenta
+ * como una) y su duración en el {@link ContadorConsultasSql} de la petición en curso.
+ * {@link ConsultasSqlFilter} publica y valida los totales al terminar cada petición.
+ */
+@Configuration
+public class ConsultasSqlConfig {
+
+    // Estático para que el post-procesador se registre antes de crear el DataSource
+    @Bean
+    public static BeanPostProcessor contadorConsultasSqlPostProcessor() {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof DataSource dataSource && !(bean instanceof ProxyDataSource)) {
+                    return ProxyDataSourceBuilder.create(dataSource)
+                            .name(beanName)
+                            .listener(new ContadorListener())
+                            .build();
+                }
+                return bean;
+            }
+        };
+    }
+
+    private static final class ContadorListener implements QueryExecutionListener {
+
+        @Override
+        public void beforeQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+            ContadorConsultasSql.antesDeSentencia();
+        }
+
+        @Override
+        public void afterQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+            ContadorConsultasSql.despuesDeSentencia();
+        }
+    }
+}
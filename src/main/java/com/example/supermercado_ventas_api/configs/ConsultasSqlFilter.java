@@ -0,0 +1,85 @@
+package com.example.supermercado_ventas_api.configs;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cuenta las sentencias SQL y el tiempo JDBC de cada petición HTTP y los publica por endpoint
+ * (método y patrón de la ruta, cardinalidad acotada). Si una petición supera el umbral de aviso
+ * se registra un warning estructurado, típico síntoma de un N+1. En modo estricto (activado en
+ * los tests) superar el presupuesto de su endpoint hace fallar la petición.
+ */
+@Slf4j
+@Component
+// Por fuera de Spring Security, para contar también las consultas del filtro JWT
+@Order(Ordered.HIGHEST_PRECEDENCE + 10)
+public class ConsultasSqlFilter extends OncePerRequestFilter {
+
+    private final int umbralAviso;
+    private final boolean estricto;
+    private final Map<String, Integer> presupuestos;
+    private final Meter.MeterProvider<DistributionSummary> sentencias;
+    private final Meter.MeterProvider<Timer> tiempo;
+
+    public ConsultasSqlFilter(MeterRegistry meterRegistry,
+                              @Value("${sql.consultas.umbral-aviso:20}") int umbralAviso,
+                              @Value("${sql.consultas.estricto:false}") boolean estricto,
+                              @Value("#{${sql.consultas.presupuestos:{:}}}") Map<String, Integer> presupuestos) {
+        this.umbralAviso = umbralAviso;
+        this.estricto = estricto;
+        this.presupuestos = presupuestos;
+        this.sentencias = DistributionSummary.builder("http.server.sql.sentencias")
+                .description("Sentencias JDBC ejecutadas por petición")
+                .withRegistry(meterRegistry);
+        this.tiempo = Timer.builder("http.server.sql.tiempo")
+                .description("Tiempo en JDBC por petición")
+                .withRegistry(meterRegistry);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        ContadorConsultasSql contador = ContadorConsultasSql.iniciar();
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            ContadorConsultasSql.finalizar();
+        }
+
+        // El patrón de la ruta solo se conoce una vez resuelto el controlador
+        Object patron = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        String uri = patron != null ? patron.toString() : "UNKNOWN";
+        String endpoint = request.getMethod() + " " + uri;
+
+        sentencias.withTags("method", request.getMethod(), "uri", uri).record(contador.getSentencias());
+        tiempo.withTags("method", request.getMethod(), "uri", uri).record(contador.getNanos(), TimeUnit.NANOSECONDS);
+
+        if (contador.getSentencias() > umbralAviso) {
+            log.warn("consultas_sql_excesivas endpoint=\"{}\" sentencias={} tiempo_jdbc_ms={} umbral={}",
+                    endpoint, contador.getSentencias(), TimeUnit.NANOSECONDS.toMillis(contador.getNanos()), umbralAviso);
+        }
+
+        Integer presupuesto = presupuestos.get(endpoint);
+        if (estricto && presupuesto != null && contador.getSentencias() > presupuesto) {
+            throw new IllegalStateException(String.format(
+                    "%s ejecutó %d sentencias SQL y su presupuesto es %d", endpoint, contador.getSentencias(), presupuesto));
+        }
+    }
+}
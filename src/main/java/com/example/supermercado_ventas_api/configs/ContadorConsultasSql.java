@@ -0,0 +1,51 @@
+package com.example.supermercado_ventas_api.configs;
+
+/**
+ * Sentencias JDBC ejecutadas y tiempo pasado en ellas durante la petición HTTP en curso.
+ * Se asocia al hilo que atiende la petición; las consultas fuera de una petición (arranque,
+ * hilos propios) no se cuentan.
+ */
+public final class ContadorConsultasSql {
+
+    private static final ThreadLocal<ContadorConsultasSql> ACTUAL = new ThreadLocal<>();
+
+    private int sentencias;
+    private long nanos;
+    private long inicioSentencia;
+
+    private ContadorConsultasSql() {
+    }
+
+    static ContadorConsultasSql iniciar() {
+        ContadorConsultasSql contador = new ContadorConsultasSql();
+        ACTUAL.set(contador);
+        return contador;
+    }
+
+    static void finalizar() {
+        ACTUAL.remove();
+    }
+
+    public static void antesDeSentencia() {
+        ContadorConsultasSql contador = ACTUAL.get();
+        if (contador != null) {
+            contador.inicioSentencia = System.nanoTime();
+        }
+    }
+
+    public static void despuesDeSentencia() {
+        ContadorConsultasSql contador = ACTUAL.get();
+        if (contador != null) {
+            contador.sentencias++;
+            contador.nanos += System.nanoTime() - contador.inicioSentencia;
+        }
+    }
+
+    public int getSentencias() {
+        return sentencias;
+    }
+
+    public long getNanos() {
+        return nanos;
+    }
+}
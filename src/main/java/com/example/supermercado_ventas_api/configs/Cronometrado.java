@@ -0,0 +1,18 @@
+package com.example.supermercado_ventas_api.configs;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marca un método de servicio cuya duración se publica como temporizador de Micrometer
+ * con el nombre indicado, incluidos el commit de su transacción y los reintentos.
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface Cronometrado {
+
+    // Nombre del temporizador, por ejemplo "ventas.registrar"
+    String value();
+}
@@ -0,0 +1,45 @@
+package com.example.supermercado_ventas_api.configs;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.RequiredArgsConstructor;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+/**
+ * Mide los métodos anotados con {@link Cronometrado}. Se ejecuta antes que el aspecto de
+ * reintentos y que el interceptor transaccional, de modo que el tiempo incluye el commit y
+ * todos los intentos. La etiqueta {@code resultado} vale {@code ok} o el nombre de la excepción.
+ */
+@Aspect
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+@RequiredArgsConstructor
+public class CronometradoAspect {
+
+    private final MeterRegistry meterRegistry;
+
+    // La anotación se lee de la firma en lugar de enlazarla como argumento: con la máxima precedencia
+    // el aspecto se ejecuta antes que ExposeInvocationInterceptor y Spring no podría enlazarla
+    @Around("@annotation(com.example.supermercado_ventas_api.configs.Cronometrado)")
+    public Object medir(ProceedingJoinPoint joinPoint) throws Throwable {
+        Cronometrado cronometrado = ((MethodSignature) joinPoint.getSignature()).getMethod().getAnnotation(Cronometrado.class);
+        Timer.Sample muestra = Timer.start(meterRegistry);
+        String resultado = "ok";
+        try {
+            return joinPoint.proceed();
+        } catch (Throwable e) {
+            resultado = e.getClass().getSimpleName();
+            throw e;
+        } finally {
+            muestra.stop(Timer.builder(cronometrado.value())
+                    .tag("resultado", resultado)
+                    .register(meterRegistry));
+        }
+    }
+}
@@ -0,0 +1,78 @@
+package com.example.supermercado_ventas_api.configs;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.Authentication;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Date;
+
+/**
+ * Caché acotada de autenticaciones ya resueltas por token JWT, para no volver a
+ * verificar la firma ni consultar la BD en cada petición del mismo token.
+ * Las entradas caducan por TTL o al expirar el token, lo que ocurra antes.
+ */
+@Component
+public class JWTAuthenticationCache {
+
+    private record Entrada(Authentication authentication, String username, Instant expiracion) {
+    }
+
+    private final Cache<String, Entrada> cache;
+
+    // Momento del último cambio de rol por usuario: los tokens emitidos antes no son fiables.
+    // Pasada la vida de un token ya no queda ninguno anterior al cambio, así que la marca caduca
+    private final Cache<String, Instant> invalidaciones;
+
+    public JWTAuthenticationCache(@Value("${jwt.cache.max-entradas:10000}") long maxEntradas,
+                                  @Value("${jwt.cache.ttl-segundos:300}") long ttlSegundos,
+                                  @Value("${jwt.expiration}") long jwtExpirationMs) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxEntradas)
+                .expireAfterWrite(Duration.ofSeconds(ttlSegundos))
+                .build();
+        this.invalidaciones = Caffeine.newBuilder()
+                .expireAfterWrite(Duration.ofMillis(jwtExpirationMs))
+                .build();
+    }
+
+    // Devuelve la autenticación cacheada para el token, o null si no está o el token ya expiró
+    public Authentication obtener(String token) {
+        Entrada entrada = cache.getIfPresent(token);
+        if (entrada == null) {
+            return null;
+        }
+        if (!Instant.now().isBefore(entrada.expiracion())) {
+            cache.invalidate(token);
+            return null;
+        }
+        return entrada.authentication();
+    }
+
+    public void guardar(String token, Authentication authentication, Date expiracion) {
+        cache.put(token, new Entrada(authentication, authentication.getName(),
+                expiracion != null ? expiracion.toInstant() : Instant.MAX));
+    }
+
+    /**
+     * Descarta las autenticaciones cacheadas del usuario y marca como no fiable el rol
+     * embebido en los tokens que se le emitieron hasta ahora. Debe llamarse al cambiar su rol.
+     */
+    public void invalidarUsuario(String username) {
+        invalidaciones.put(username, Instant.now());
+        cache.asMap().values().removeIf(entrada -> entrada.username().equals(username));
+    }
+
+    // Indica si el rol del token puede estar desactualizado por un cambio posterior a su emisión
+    public boolean rolDesactualizado(String username, Date emitidoEn) {
+        Instant invalidadoEn = invalidaciones.getIfPresent(username);
+        return invalidadoEn != null && (emitidoEn == null || !emitidoEn.toInstant().isAfter(invalidadoEn));
+    }
+
+    public long getTamanio() {
+        return cache.estimatedSize();
+    }
+}
@@ -1,27 +1,52 @@
 package com.example.supermercado_ventas_api.configs;
 
-import com.example.supermercado_ventas_api.models.Usuario;
 import com.example.supermercado_ventas_api.repositories.UsuarioRepository;
+import io.jsonwebtoken.Claims;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.constraints.NotNull;
-import lombok.RequiredArgsConstructor;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
-import java.util.Collections;
 import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
 
-@RequiredArgsConstructor
 public class JWTFilter extends OncePerRequestFilter {
 
     private final JWTUtils jwtUtils;
-    private final UsuarioRepository usuarioRepository; // Inyectamos el repo para obtener el rol real
+    private final UsuarioRepository usuarioRepository; // Solo para tokens sin rol o con el rol desactualizado
+    private final JWTAuthenticationCache authenticationCache;
+
+    // Tiempo de autenticación por petición (sin contar el resto de la cadena), según cómo se resolvió el token
+    private final Timer tiempoCache;
+    private final Timer tiempoVerificado;
+    private final Timer tiempoRechazado;
+
+    public JWTFilter(JWTUtils jwtUtils, UsuarioRepository usuarioRepository, JWTAuthenticationCache authenticationCache,
+                     MeterRegistry meterRegistry) {
+        this.jwtUtils = jwtUtils;
+        this.usuarioRepository = usuarioRepository;
+        this.authenticationCache = authenticationCache;
+        this.tiempoCache = temporizador(meterRegistry, "cache");
+        this.tiempoVerificado = temporizador(meterRegistry, "verificado");
+        this.tiempoRechazado = temporizador(meterRegistry, "rechazado");
+    }
+
+    private static Timer temporizador(MeterRegistry meterRegistry, String resultado) {
+        return Timer.builder("jwt.filtro")
+                .description("Autenticación del token JWT de la petición")
+                .tag("resultado", resultado)
+                .register(meterRegistry);
+    }
 
     @Override
     protected void doFilterInternal(HttpServletRequest request, @NotNull HttpServletResponse response, @NotNull FilterChain filterChain)
@@ -38,27 +63,51 @@ public class JWTFilter extends OncePerRequestFilter {
         String header = request.getHeader("Authorization");
 
         if (header != null && header.startsWith("Bearer ")) {
+            long inicio = System.nanoTime();
             String token = header.substring(7);
 
-            if (jwtUtils.validateJwtToken(token)) {
-                String username = jwtUtils.getUsernameFromJwtToken(token);
+            Timer tiempo = tiempoCache;
+            Authentication auth = authenticationCache.obtener(token);
+            if (auth == null) {
+                auth = resolver(token);
+                tiempo = auth != null ? tiempoVerificado : tiempoRechazado;
+            }
+            if (auth != null) {
+                SecurityContextHolder.getContext().setAuthentication(auth);
+            }
+            tiempo.record(System.nanoTime() - inicio, TimeUnit.NANOSECONDS);
+        }
+
+        filterChain.doFilter(request, response);
+    }
 
-                // Buscamos al usuario en la BD para conocer su ROL
-                usuarioRepository.findByUsername(username).ifPresent(usuario -> {
-                    // Convertimos el Enum Rol a una autoridad reconocida por Spring Security
-                    SimpleGrantedAuthority authority = new SimpleGrantedAuthority(usuario.getRol().name());
+    // Verifica el token una sola vez y construye la autenticación con el rol del claim
+    private Authentication resolver(String token) {
+        Optional<Claims> claims = jwtUtils.parseClaims(token);
+        if (claims.isEmpty()) {
+            return null;
+        }
 
-                    UsernamePasswordAuthenticationToken auth = new UsernamePasswordAuthenticationToken(
-                            username,
-                            null,
-                            List.of(authority) // Aquí pasamos el ROL real (ADMIN o CAJERO)
-                    );
+        String username = claims.get().getSubject();
+        String rol = claims.get().get(JWTUtils.CLAIM_ROL, String.class);
 
-                    SecurityContextHolder.getContext().setAuthentication(auth);
-                });
+        // Tokens anteriores al claim de rol o emitidos antes de un cambio de rol: se consulta la BD
+        if (rol == null || authenticationCache.rolDesactualizado(username, claims.get().getIssuedAt())) {
+            rol = usuarioRepository.findByUsername(username)
+                    .map(usuario -> usuario.getRol().name())
+                    .orElse(null);
+            if (rol == null) {
+                return null;
             }
         }
 
-        filterChain.doFilter(request, response);
+        // Convertimos el rol a una autoridad reconocida por Spring Security (ADMIN o CAJERO)
+        UsernamePasswordAuthenticationToken auth = new UsernamePasswordAuthenticationToken(
+                username,
+                null,
+                List.of(new SimpleGrantedAuthority(rol))
+        );
+        authenticationCache.guardar(token, auth, claims.get().getExpiration());
+        return auth;
     }
-}
\ No newline at end of file
+}
@@ -1,7 +1,11 @@
 package com.example.supermercado_ventas_api.configs;
 
+import com.example.supermercado_ventas_api.models.Rol;
+import io.jsonwebtoken.Claims;
 import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.ProtectedHeader;
 import io.jsonwebtoken.security.Keys;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
@@ -9,53 +13,93 @@ import org.springframework.stereotype.Component;
 import javax.crypto.SecretKey;
 import java.nio.charset.StandardCharsets;
 import java.util.Date;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
 
+/**
+ * Emisión y verificación de tokens JWT. Las claves y el parser se construyen una sola vez
+ * al arrancar y son inmutables, por lo que se comparten entre peticiones sin sincronización.
+ * Admite rotación de claves: se firma con la clave actual (cabecera "kid") y se aceptan
+ * también los tokens firmados con las claves anteriores configuradas.
+ */
 @Component
 public class JWTUtils {
 
-    @Value("${jwt.secret}")
-    private String secretKey;
+    // Claim con el rol del usuario, para no consultar la BD en cada petición
+    public static final String CLAIM_ROL = "rol";
 
-    @Value("${jwt.expiration}")
-    private int jwtExpirationMs;
+    private final String kidActual;
+    private final SecretKey claveActual;
+    private final Map<String, SecretKey> clavesPorKid;
+    private final JwtParser parser;
+    private final long jwtExpirationMs;
 
-    // Genera la clave criptográfica a partir del secreto configurado
-    private SecretKey getKey() {
+    public JWTUtils(@Value("${jwt.secret}") String secretKey,
+                    @Value("${jwt.expiration}") long jwtExpirationMs,
+                    @Value("${jwt.kid:principal}") String kidActual,
+                    @Value("#{${jwt.claves-anteriores:{:}}}") Map<String, String> clavesAnteriores) {
+        this.kidActual = kidActual;
+        this.claveActual = crearClave(secretKey);
+        this.jwtExpirationMs = jwtExpirationMs;
 
-        return Keys.hmacShaKeyFor(secretKey.getBytes(StandardCharsets.UTF_8));
+        Map<String, SecretKey> claves = new HashMap<>();
+        clavesAnteriores.forEach((kid, secreto) -> claves.put(kid, crearClave(secreto)));
+        claves.put(kidActual, claveActual);
+        this.clavesPorKid = Map.copyOf(claves);
+
+        this.parser = Jwts.parser()
+                .keyLocator(header -> localizarClave(header instanceof ProtectedHeader protegida ? protegida.getKeyId() : null))
+                .build();
+    }
+
+    // Genera la clave criptográfica a partir de un secreto configurado
+    private static SecretKey crearClave(String secreto) {
+        return Keys.hmacShaKeyFor(secreto.getBytes(StandardCharsets.UTF_8));
     }
 
-    // Genera un token JWT firmado para el usuario autenticado
-    public String generateToken(String username) {
+    // Los tokens emitidos antes de introducir el "kid" se verifican con la clave actual
+    private SecretKey localizarClave(String kid) {
+        if (kid == null) {
+            return claveActual;
+        }
+        SecretKey clave = clavesPorKid.get(kid);
+        if (clave == null) {
+            throw new JwtException("Clave de firma desconocida: " + kid);
+        }
+        return clave;
+    }
+
+    // Genera un token JWT firmado para el usuario autenticado, incluyendo su rol
+    public String generateToken(String username, Rol rol) {
+        Date ahora = new Date();
         return Jwts.builder()
+                .header().keyId(kidActual).and()
                 .subject(username)
-                .issuedAt(new Date())
-                .expiration(new Date(new Date().getTime() + jwtExpirationMs))
-                .signWith(getKey())
+                .claim(CLAIM_ROL, rol.name())
+                .issuedAt(ahora)
+                .expiration(new Date(ahora.getTime() + jwtExpirationMs))
+                .signWith(claveActual)
                 .compact();
     }
 
+    // Valida el token JWT y devuelve sus claims en un único parseo; vacío si es inválido o ha caducado
+    public Optional<Claims> parseClaims(String token) {
+        try {
+            return Optional.of(parser.parseSignedClaims(token).getPayload());
+        } catch (JwtException | IllegalArgumentException e) {
+            System.out.println("Token inválido: " + e.getMessage());
+            return Optional.empty();
+        }
+    }
+
     // Extrae el nombre de usuario contenido en el token JWT
     public String getUsernameFromJwtToken(String token) {
-        return Jwts.parser()
-                .verifyWith(getKey())
-                .build()
-                .parseSignedClaims(token)
-                .getPayload()
-                .getSubject();
+        return parseClaims(token).map(Claims::getSubject).orElse(null);
     }
 
     // Valida la integridad y vigencia del token JWT
     public boolean validateJwtToken(String authToken) {
-        try {
-            Jwts.parser()
-                    .verifyWith(getKey())
-                    .build()
-                    .parseSignedClaims(authToken);
-            return true;
-        } catch (JwtException | IllegalArgumentException e) {
-            System.out.println("Token inválido: " + e.getMessage());
-            return false;
-        }
+        return parseClaims(authToken).isPresent();
     }
 }
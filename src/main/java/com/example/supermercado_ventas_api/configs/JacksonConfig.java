@@ -0,0 +1,21 @@
+package com.example.supermercado_ventas_api.configs;
+
+import com.fasterxml.jackson.databind.Module;
+import com.fasterxml.jackson.module.blackbird.BlackbirdModule;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Configuración adicional de Jackson. Spring Boot registra en el ObjectMapper
+ * cualquier {@link Module} declarado como bean.
+ */
+@Configuration
+public class JacksonConfig {
+
+    // Sustituye la reflexión de los getters y accesores de records por lambdas generadas
+    // en tiempo de ejecución (LambdaMetafactory), lo que abarata la serialización de listados grandes
+    @Bean
+    public Module blackbirdModule() {
+        return new BlackbirdModule();
+    }
+}
@@ -0,0 +1,98 @@
+package com.example.supermercado_ventas_api.configs;
+
+import com.example.supermercado_ventas_api.services.AlertaStockService;
+import com.example.supermercado_ventas_api.services.AuditoriaStockService;
+import com.example.supermercado_ventas_api.services.CatalogoProductosCache;
+import com.example.supermercado_ventas_api.services.HistorialStockService;
+import com.example.supermercado_ventas_api.services.IdempotenciaVentaService;
+import com.example.supermercado_ventas_api.services.VentasEnVivoService;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.config.MeterFilter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Métricas propias de la aplicación. Spring Boot añade por su cuenta las de las peticiones HTTP,
+ * la JVM y el pool de Hikari (hikaricp_connections_*), y las publica en /actuator/prometheus.
+ */
+@Configuration
+public class MetricasConfig {
+
+    public static final String ETIQUETA_SUCURSAL = "sucursal";
+    private static final String OTRAS_SUCURSALES = "otras";
+
+    // Acota la cardinalidad de la etiqueta de sucursal: a partir del límite, las sucursales nuevas
+    // se agrupan en "otras" para que el número de series no crezca con la tabla de sucursales
+    @Bean
+    public MeterFilter limiteEtiquetasSucursal(@Value("${metricas.sucursales.max-etiquetas:100}") int maxEtiquetas) {
+        Set<String> conocidas = ConcurrentHashMap.newKeySet();
+        return new MeterFilter() {
+            @Override
+            public Meter.Id map(Meter.Id id) {
+                String sucursal = id.getTag(ETIQUETA_SUCURSAL);
+                if (sucursal == null || conocidas.contains(sucursal)
+                        || (conocidas.size() < maxEtiquetas && conocidas.add(sucursal))) {
+                    return id;
+                }
+                return id.replaceTags(Tags.of(id.getTagsAsIterable()).and(ETIQUETA_SUCURSAL, OTRAS_SUCURSALES));
+            }
+        };
+    }
+
+    // Contadores y tamaños que los componentes ya llevaban en memoria, leídos en cada scrape
+    @Bean
+    public MeterBinder metricasComponentes(ReintentoOptimistaAspect reintentos,
+                                           JWTAuthenticationCache jwtCache,
+                                           IdempotenciaVentaService idempotencia,
+                                           CatalogoProductosCache catalogo,
+                                           AlertaStockService alertas,
+                                           VentasEnVivoService ventasEnVivo,
+                                           AuditoriaStockService auditoria,
+                                           HistorialStockService historial) {
+        return registry -> {
+            FunctionCounter.builder("inventario.reintentos.conflictos", reintentos, ReintentoOptimistaAspect::getConflictos).register(registry);
+            FunctionCounter.builder("inventario.reintentos.reintentos", reintentos, ReintentoOptimistaAspect::getReintentos).register(registry);
+            FunctionCounter.builder("inventario.reintentos.agotados", reintentos, ReintentoOptimistaAspect::getAgotados).register(registry);
+
+            Gauge.builder("jwt.cache.tamanio", jwtCache, JWTAuthenticationCache::getTamanio).register(registry);
+
+            FunctionCounter.builder("ventas.idempotencia.aciertos", idempotencia, IdempotenciaVentaService::getAciertosMemoria)
+                    .tag("origen", "memoria").register(registry);
+            FunctionCounter.builder("ventas.idempotencia.aciertos", idempotencia, IdempotenciaVentaService::getAciertosBaseDatos)
+                    .tag("origen", "base-datos").register(registry);
+            Gauge.builder("ventas.idempotencia.tamanio", idempotencia, IdempotenciaVentaService::getTamanio).register(registry);
+
+            FunctionCounter.builder("productos.cache.aciertos", catalogo, CatalogoProductosCache::getAciertos).register(registry);
+            FunctionCounter.builder("productos.cache.fallos", catalogo, CatalogoProductosCache::getFallos).register(registry);
+            Gauge.builder("productos.cache.tamanio", catalogo, CatalogoProductosCache::getTamanio).register(registry);
+
+            FunctionCounter.builder("inventario.alertas.emitidas", alertas, AlertaStockService::getEmitidas).register(registry);
+            FunctionCounter.builder("inventario.alertas.descartadas", alertas, AlertaStockService::getDescartadas).register(registry);
+            Gauge.builder("inventario.alertas.pendientes", alertas, AlertaStockService::getPendientes).register(registry);
+            Gauge.builder("inventario.alertas.suscriptores", alertas, AlertaStockService::getSuscriptores).register(registry);
+            Gauge.builder("inventario.alertas.vigilados", alertas, AlertaStockService::getVigilados).register(registry);
+
+            FunctionCounter.builder("ventas.stream.publicadas", ventasEnVivo, VentasEnVivoService::getPublicadas).register(registry);
+            FunctionCounter.builder("ventas.stream.descartadas", ventasEnVivo, VentasEnVivoService::getDescartadas).register(registry);
+            FunctionCounter.builder("ventas.stream.desconectados", ventasEnVivo, VentasEnVivoService::getDesconectados).register(registry);
+            Gauge.builder("ventas.stream.suscriptores", ventasEnVivo, VentasEnVivoService::getSuscriptores).register(registry);
+
+            FunctionCounter.builder("auditoria.stock.encolados", auditoria, AuditoriaStockService::getEncolados).register(registry);
+            FunctionCounter.builder("auditoria.stock.escritos", auditoria, AuditoriaStockService::getEscritos).register(registry);
+            FunctionCounter.builder("auditoria.stock.desbordados", auditoria, AuditoriaStockService::getDesbordados).register(registry);
+            FunctionCounter.builder("auditoria.stock.lotes.fallidos", auditoria, AuditoriaStockService::getLotesFallidos).register(registry);
+            FunctionCounter.builder("auditoria.stock.rechazados", auditoria, AuditoriaStockService::getRechazados).register(registry);
+            Gauge.builder("auditoria.stock.pendientes", auditoria, AuditoriaStockService::getPendientes).register(registry);
+            Gauge.builder("auditoria.stock.desbordamiento", auditoria, AuditoriaStockService::getPendientesDesbordamiento).register(registry);
+            FunctionCounter.builder("inventario.historial.snapshots", historial, HistorialStockService::getSnapshotsGenerados).register(registry);
+        };
+    }
+}
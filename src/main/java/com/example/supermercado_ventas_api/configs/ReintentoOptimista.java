@@ -0,0 +1,15 @@
+package com.example.supermercado_ventas_api.configs;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marca un método de servicio que modifica stock para que, ante un conflicto de
+ * bloqueo optimista, se vuelva a ejecutar completo en una nueva transacción.
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface ReintentoOptimista {
+}
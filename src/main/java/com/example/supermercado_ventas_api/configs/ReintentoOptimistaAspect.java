@@ -0,0 +1,79 @@
+package com.example.supermercado_ventas_api.configs;
+
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Reintenta con espera exponencial los métodos anotados con {@link ReintentoOptimista}
+ * cuando otra transacción modificó la misma fila de inventario.
+ * Se ejecuta antes que el interceptor transaccional, por lo que cada intento
+ * abre una transacción nueva y vuelve a leer los datos actualizados.
+ * Queda justo por dentro de {@link CronometradoAspect}, que mide todos los intentos juntos.
+ */
+@Aspect
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 1)
+public class ReintentoOptimistaAspect {
+
+    @Value("${inventario.reintentos.max-intentos:3}")
+    private int maxIntentos;
+
+    @Value("${inventario.reintentos.espera-inicial-ms:20}")
+    private long esperaInicialMs;
+
+    // Contadores acumulados desde el arranque de la aplicación
+    private final LongAdder conflictos = new LongAdder();
+    private final LongAdder reintentos = new LongAdder();
+    private final LongAdder agotados = new LongAdder();
+
+    @Around("@annotation(com.example.supermercado_ventas_api.configs.ReintentoOptimista)")
+    public Object reintentar(ProceedingJoinPoint joinPoint) throws Throwable {
+        int intento = 1;
+        while (true) {
+            try {
+                return joinPoint.proceed();
+            } catch (OptimisticLockingFailureException e) {
+                conflictos.increment();
+                if (intento >= maxIntentos) {
+                    agotados.increment();
+                    throw e;
+                }
+                reintentos.increment();
+                esperar(intento, e);
+                intento++;
+            }
+        }
+    }
+
+    // Espera exponencial con jitter para que los reintentos concurrentes no vuelvan a colisionar
+    private void esperar(int intento, OptimisticLockingFailureException conflicto) {
+        long espera = esperaInicialMs * (1L << (intento - 1));
+        try {
+            Thread.sleep(espera + ThreadLocalRandom.current().nextLong(esperaInicialMs + 1));
+        } catch (InterruptedException ie) {
+            Thread.currentThread().interrupt();
+            throw conflicto;
+        }
+    }
+
+    public long getConflictos() {
+        return conflictos.sum();
+    }
+
+    public long getReintentos() {
+        return reintentos.sum();
+    }
+
+    public long getAgotados() {
+        return agotados.sum();
+    }
+}
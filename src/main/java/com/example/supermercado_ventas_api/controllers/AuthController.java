@@ -1,5 +1,6 @@
 package com.example.supermercado_ventas_api.controllers;
 
+import com.example.supermercado_ventas_api.configs.JWTAuthenticationCache;
 import com.example.supermercado_ventas_api.configs.JWTUtils;
 import com.example.supermercado_ventas_api.models.Rol;
 import com.example.supermercado_ventas_api.models.Usuario;
@@ -17,6 +18,7 @@ public class AuthController {
 
     private final UsuarioRepository usuarioRepository;
     private final JWTUtils jwtUtils;
+    private final JWTAuthenticationCache jwtAuthenticationCache;
     private final org.springframework.security.crypto.password.PasswordEncoder passwordEncoder;
 
     @PostMapping("/registro")
@@ -33,6 +35,8 @@ public class AuthController {
                 .build();
 
         usuarioRepository.save(nuevoUsuario);
+        // Si el nombre pertenecía a un usuario eliminado, sus tokens no deben conservar el rol anterior
+        jwtAuthenticationCache.invalidarUsuario(nuevoUsuario.getUsername());
         return ResponseEntity.ok(Map.of("message", "Usuario registrado como " + request.rol()));
     }
 
@@ -42,7 +46,7 @@ public class AuthController {
                 // AQUÍ COMPARAMOS DE FORMA SEGURA:
                 .filter(user -> passwordEncoder.matches(request.password(), user.getPassword()))
                 .map(user -> {
-                    String token = jwtUtils.generateToken(user.getUsername());
+                    String token = jwtUtils.generateToken(user.getUsername(), user.getRol());
                     return ResponseEntity.ok(Map.of(
                             "token", token,
                             "rol", user.getRol(),
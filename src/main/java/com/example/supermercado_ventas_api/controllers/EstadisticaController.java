@@ -1,6 +1,7 @@
 package com.example.supermercado_ventas_api.controllers;
 
 import com.example.supermercado_ventas_api.dtos.ProductoTopVentasDTO;
+import com.example.supermercado_ventas_api.services.TopProductosService;
 import com.example.supermercado_ventas_api.services.VentaService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
@@ -8,8 +9,10 @@ import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
+import java.time.LocalDate;
 import java.util.List;
 import java.util.Map;
 
@@ -24,6 +27,7 @@ import java.util.Map;
 public class EstadisticaController {
 
     private final VentaService ventaService;
+    private final TopProductosService topProductosService;
 
     /**
      * Devuelve el producto con mayor cantidad de ventas registradas.
@@ -41,8 +45,27 @@ public class EstadisticaController {
         return ResponseEntity.ok(topVenta);
     }
 
+    /**
+     * Devuelve los K productos más vendidos en el día, la semana o el mes en curso,
+     * a nivel global o para una sucursal. Se resuelve en memoria, sin consultar la BD.
+     */
+    @GetMapping("/top-productos")
+    @Operation(summary = "Top productos", description = "Ranking de productos más vendidos por ventana (dia, semana, mes) y sucursal opcional.")
+    public ResponseEntity<List<ProductoTopVentasDTO>> getTopProductos(@RequestParam(required = false, defaultValue = "10") int k,
+                                                                      @RequestParam(required = false, defaultValue = "semana") String ventana,
+                                                                      @RequestParam(required = false) Long idSucursal) {
+        return ResponseEntity.ok(topProductosService.obtenerTopProductos(k, ventana, idSucursal));
+    }
+
+    /**
+     * Devuelve el total vendido y el número de ventas por día, opcionalmente
+     * acotado a un rango de fechas (ambos extremos incluidos) y a una sucursal.
+     */
     @GetMapping("/ventas-semanales")
-    public ResponseEntity<List<Map<String, Object>>> getVentasSemanales() {
-        return ResponseEntity.ok(ventaService.obtenerEstadisticasVentas());
+    @Operation(summary = "Ventas por día", description = "Total y número de ventas activas por día, filtrable por rango de fechas y sucursal.")
+    public ResponseEntity<List<Map<String, Object>>> getVentasSemanales(@RequestParam(required = false) LocalDate desde,
+                                                                        @RequestParam(required = false) LocalDate hasta,
+                                                                        @RequestParam(required = false) Long idSucursal) {
+        return ResponseEntity.ok(ventaService.obtenerEstadisticasVentas(desde, hasta, idSucursal));
     }
 }
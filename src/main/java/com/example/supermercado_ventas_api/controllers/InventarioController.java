@@ -1,17 +1,26 @@
 package com.example.supermercado_ventas_api.controllers;
 
+import com.example.supermercado_ventas_api.dtos.InventarioPaginaResponseDTO;
 import com.example.supermercado_ventas_api.dtos.InventarioRequestDTO;
 import com.example.supermercado_ventas_api.dtos.InventarioResponseDTO;
 import com.example.supermercado_ventas_api.dtos.InventarioUpdateDTO;
+import com.example.supermercado_ventas_api.dtos.StockHistoricoDTO;
+import com.example.supermercado_ventas_api.dtos.StockMinimoDTO;
 import com.example.supermercado_ventas_api.exceptions.ResourceNotFoundException;
+import com.example.supermercado_ventas_api.services.AlertaStockService;
+import com.example.supermercado_ventas_api.services.HistorialStockService;
 import com.example.supermercado_ventas_api.services.InventarioService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
+import java.time.LocalDateTime;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -27,26 +36,50 @@ import java.util.Map;
 public class InventarioController {
 
     private final InventarioService inventarioService;
+    private final AlertaStockService alertaStockService;
+    private final HistorialStockService historialStockService;
 
     /**
      * Obtiene el stock disponible, permitiendo filtrar opcionalmente
-     * por sucursal y/o producto.
+     * por sucursal y/o producto. Los resultados se paginan por cursor:
+     * para obtener la página siguiente se envía el {@code nextCursor} recibido.
      */
     @GetMapping
-    @Operation(summary = "Listar inventarios", description = "Obtiene todos los inventarios disponibles.")
-    public ResponseEntity<List<InventarioResponseDTO>> verStock(
+    @Operation(summary = "Listar inventarios", description = "Obtiene los inventarios disponibles filtrando por sucursal y/o producto, paginando por cursor.")
+    public ResponseEntity<InventarioPaginaResponseDTO> verStock(
             @RequestParam(required = false) Long sucursalId,
-            @RequestParam(required = false) Long productoId) {
+            @RequestParam(required = false) Long productoId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false, defaultValue = "100") int limite) {
 
-        List<InventarioResponseDTO> stock = inventarioService.verStock(sucursalId, productoId);
+        InventarioPaginaResponseDTO stock = inventarioService.verStock(sucursalId, productoId, cursor, limite);
 
-        if (stock.isEmpty()) {
+        if (stock.inventarios().isEmpty() && cursor == null) {
             throw new ResourceNotFoundException("No hay inventario que coincida con la búsqueda.");
         }
 
         return ResponseEntity.ok(stock);
     }
 
+    /**
+     * Stock de cada producto en una fecha pasada, opcionalmente de una sola sucursal,
+     * reconstruido a partir del libro de movimientos.
+     */
+    @GetMapping("/historial")
+    @Operation(summary = "Stock histórico", description = "Obtiene el stock que había en una fecha y hora dadas (ISO-8601), filtrando opcionalmente por sucursal.")
+    public ResponseEntity<List<StockHistoricoDTO>> historialStock(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime fecha,
+            @RequestParam(required = false) Long sucursalId) {
+
+        List<StockHistoricoDTO> stock = historialStockService.stockEn(fecha, sucursalId);
+
+        if (stock.isEmpty()) {
+            throw new ResourceNotFoundException("No hay movimientos de stock registrados hasta esa fecha.");
+        }
+
+        return ResponseEntity.ok(stock);
+    }
+
     // Agrega stock de un producto a una sucursal determinada
     @PostMapping("/agregar")
     @Operation(summary = "Agregar inventario", description = "Agrega un nuevo inventario.")
@@ -78,6 +111,26 @@ public class InventarioController {
         return ResponseEntity.ok(actualizado);
     }
 
+    // Define el umbral de reposición de un inventario (null lo elimina)
+    @PutMapping("/{id}/stock-minimo")
+    @Operation(summary = "Definir stock mínimo", description = "Define el umbral por debajo del cual se emite una alerta de stock bajo.")
+    public ResponseEntity<InventarioResponseDTO> definirStockMinimo(
+            @PathVariable Long id,
+            @Valid @RequestBody StockMinimoDTO stockMinimoDTO) {
+
+        return ResponseEntity.ok(inventarioService.definirStockMinimo(id, stockMinimoDTO));
+    }
+
+    /**
+     * Flujo de alertas de stock bajo (Server-Sent Events). Al conectarse se reciben
+     * las alertas activas y después cada inventario que llega a su umbral de reposición.
+     */
+    @GetMapping(value = "/alertas", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @Operation(summary = "Alertas de stock bajo", description = "Flujo SSE con los inventarios que alcanzan su stock mínimo.")
+    public SseEmitter alertasStock() {
+        return alertaStockService.suscribir();
+    }
+
     //Elimina un registro de inventario del sistema
     @DeleteMapping("/{id}")
     @Operation(summary = "Eliminar inventario", description = "Eliminar el stock de un inventario existente.")
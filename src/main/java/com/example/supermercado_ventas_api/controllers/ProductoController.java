@@ -1,14 +1,17 @@
 package com.example.supermercado_ventas_api.controllers;
 
+import com.example.supermercado_ventas_api.dtos.ProductoResponseDTO;
 import com.example.supermercado_ventas_api.models.Producto;
 import com.example.supermercado_ventas_api.services.ProductoService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.CacheControl;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.util.List;
 import java.util.Map;
@@ -26,30 +29,38 @@ public class ProductoController {
 
     // Devuelve la lista completa de productos registrados
     @GetMapping
-    @Operation(summary = "Listar productos", description = "Obtiene todos los productos disponibles.")
-    public ResponseEntity<List<Producto>> findAll() {
-        return ResponseEntity.ok(productoService.findAll());
+    @Operation(summary = "Listar productos", description = "Obtiene todos los productos disponibles. Admite If-None-Match con el ETag recibido para responder 304 si no hubo cambios.")
+    public ResponseEntity<List<ProductoResponseDTO>> findAll(WebRequest request) {
+        // Si el cliente ya tiene la versión actual se responde 304 sin consultar la BD
+        String etag = productoService.etagListado();
+        if (request.checkNotModified(etag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).build();
+        }
+        return ResponseEntity.ok()
+                .eTag(etag)
+                .cacheControl(CacheControl.noCache().cachePrivate())
+                .body(productoService.findAll());
     }
 
     // Obtiene un producto concreto a partir de su identificador
     @GetMapping("/{id}")
     @Operation(summary = "Obtener un producto", description = "Obtiene un producto por su ID.")
-    public ResponseEntity<Producto> findById(@PathVariable Long id) {
-        return ResponseEntity.ok(productoService.findById(id));
+    public ResponseEntity<ProductoResponseDTO> findById(@PathVariable Long id) {
+        return ResponseEntity.ok(ProductoResponseDTO.desde(productoService.findById(id)));
     }
 
     // Crea un nuevo producto en el sistema
     @PostMapping
     @Operation(summary = "Crear producto", description = "Crea un nuevo producto en el inventario.")
-    public ResponseEntity<Producto> create(@Valid @RequestBody Producto producto) {
-        return new ResponseEntity<>(productoService.create(producto), HttpStatus.CREATED);
+    public ResponseEntity<ProductoResponseDTO> create(@Valid @RequestBody Producto producto) {
+        return new ResponseEntity<>(ProductoResponseDTO.desde(productoService.create(producto)), HttpStatus.CREATED);
     }
 
     // Actualiza los datos de un producto existente en el sistema
     @PutMapping("/{id}")
     @Operation(summary = "Actualizar producto", description = "Actualiza los datos de un producto existente.")
-    public ResponseEntity<Producto> update(@PathVariable Long id, @Valid @RequestBody Producto producto) {
-        return ResponseEntity.ok(productoService.update(id, producto));
+    public ResponseEntity<ProductoResponseDTO> update(@PathVariable Long id, @Valid @RequestBody Producto producto) {
+        return ResponseEntity.ok(ProductoResponseDTO.desde(productoService.update(id, producto)));
     }
 
     @DeleteMapping("/{id}")
@@ -1,14 +1,17 @@
 package com.example.supermercado_ventas_api.controllers;
 
+import com.example.supermercado_ventas_api.dtos.SucursalResponseDTO;
 import com.example.supermercado_ventas_api.models.Sucursal;
 import com.example.supermercado_ventas_api.services.SucursalService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.CacheControl;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.util.List;
 import java.util.Map;
@@ -26,30 +29,38 @@ public class SucursalController {
 
     // Devuelve la lista de todas las sucursales activas
     @GetMapping
-    @Operation(summary = "Listar sucursales", description = "Obtiene todas las tiendas activas.")
-    public ResponseEntity<List<Sucursal>> findAll() {
-        return ResponseEntity.ok(sucursalService.findAll());
+    @Operation(summary = "Listar sucursales", description = "Obtiene todas las tiendas activas. Admite If-None-Match con el ETag recibido para responder 304 si no hubo cambios.")
+    public ResponseEntity<List<SucursalResponseDTO>> findAll(WebRequest request) {
+        // Si el cliente ya tiene la versión actual se responde 304 sin consultar la BD
+        String etag = sucursalService.etagListado();
+        if (request.checkNotModified(etag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).build();
+        }
+        return ResponseEntity.ok()
+                .eTag(etag)
+                .cacheControl(CacheControl.noCache().cachePrivate())
+                .body(sucursalService.findAll().stream().map(SucursalResponseDTO::desde).toList());
     }
 
     //Obtiene una sucursal concreta a partir de su identificador
     @GetMapping("/{id}")
     @Operation(summary = "Obtener sucursal", description = "Obtener una sucursal por ID.")
-    public ResponseEntity<Sucursal> findById(@PathVariable Long id) {
-        return ResponseEntity.ok(sucursalService.findById(id));
+    public ResponseEntity<SucursalResponseDTO> findById(@PathVariable Long id) {
+        return ResponseEntity.ok(SucursalResponseDTO.desde(sucursalService.findById(id)));
     }
 
     //Registra una nueva sucursal en el sistema
     @PostMapping
     @Operation(summary = "Crear sucursal", description = "Registrar una nueva sucursal")
-    public ResponseEntity<Sucursal> create(@Valid @RequestBody Sucursal sucursal) {
-        return new ResponseEntity<>(sucursalService.create(sucursal), HttpStatus.CREATED);
+    public ResponseEntity<SucursalResponseDTO> create(@Valid @RequestBody Sucursal sucursal) {
+        return new ResponseEntity<>(SucursalResponseDTO.desde(sucursalService.create(sucursal)), HttpStatus.CREATED);
     }
 
     //Actualiza los datos de una sucursal existente
     @PutMapping("/{id}")
     @Operation(summary = "Actualizar sucursal", description = "Modifica los datos de una sucursal existente.")
-    public ResponseEntity<Sucursal> update(@PathVariable Long id, @Valid @RequestBody Sucursal sucursal) {
-        return ResponseEntity.ok(sucursalService.update(id, sucursal));
+    public ResponseEntity<SucursalResponseDTO> update(@PathVariable Long id, @Valid @RequestBody Sucursal sucursal) {
+        return ResponseEntity.ok(SucursalResponseDTO.desde(sucursalService.update(id, sucursal)));
     }
 
     //Elimina una sucursal del sistema a partir de su identificador
@@ -1,20 +1,35 @@
 package com.example.supermercado_ventas_api.controllers;
 
+import com.example.supermercado_ventas_api.dtos.VentaLoteRequestDTO;
+import com.example.supermercado_ventas_api.dtos.VentaLoteResponseDTO;
+import com.example.supermercado_ventas_api.dtos.VentaPaginaResponseDTO;
 import com.example.supermercado_ventas_api.dtos.VentaRequestDTO;
 import com.example.supermercado_ventas_api.dtos.VentaResponseDTO;
 import com.example.supermercado_ventas_api.exceptions.ResourceNotFoundException;
+import com.example.supermercado_ventas_api.services.ExportacionVentasService;
+import com.example.supermercado_ventas_api.services.IdempotenciaVentaService;
 import com.example.supermercado_ventas_api.services.VentaService;
+import com.example.supermercado_ventas_api.services.VentasEnVivoService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.OutputStream;
 import java.time.LocalDate;
-import java.util.List;
+import java.util.Locale;
 import java.util.Map;
+import java.util.zip.GZIPOutputStream;
 
 /**
  * Controlador REST encargado de la gestión de ventas del sistema.
@@ -26,31 +41,163 @@ import java.util.Map;
 @Tag(name = "Ventas", description = "Gestión de ventas")
 public class VentaController {
     private final VentaService ventaService;
+    private final IdempotenciaVentaService idempotenciaVentaService;
+    private final VentasEnVivoService ventasEnVivoService;
+    private final ExportacionVentasService exportacionVentasService;
 
-    //Registra una nueva venta asociada a una sucursal y a uno o varios productos
+    /**
+     * Registra una nueva venta asociada a una sucursal y a uno o varios productos.
+     * Con la cabecera {@code Idempotency-Key}, un reintento con la misma clave devuelve
+     * la venta original (marcada con {@code Idempotent-Replayed: true}) sin registrarla de nuevo.
+     */
     @PostMapping
-    @Operation(summary = "Registrar una venta", description = "Registra una venta asociada a una sucursal y productos")
-    public ResponseEntity<VentaResponseDTO> registrarVenta(@Valid @RequestBody VentaRequestDTO ventaDTO) {
-        return new ResponseEntity<>(ventaService.registrarVenta(ventaDTO), HttpStatus.CREATED);
+    @Operation(summary = "Registrar una venta", description = "Registra una venta asociada a una sucursal y productos. Admite la cabecera Idempotency-Key para reintentos seguros")
+    public ResponseEntity<VentaResponseDTO> registrarVenta(@RequestHeader(value = "Idempotency-Key", required = false) String claveIdempotencia,
+                                                           @Valid @RequestBody VentaRequestDTO ventaDTO) {
+        IdempotenciaVentaService.Resultado resultado = idempotenciaVentaService.registrar(claveIdempotencia, ventaDTO);
+        ResponseEntity.BodyBuilder respuesta = ResponseEntity.status(HttpStatus.CREATED);
+        if (resultado.repetida()) {
+            respuesta.header("Idempotent-Replayed", "true");
+        }
+        return respuesta.body(resultado.venta());
+    }
+
+    /**
+     * Registra en bloque las ventas acumuladas por una caja sin conexión.
+     * Las ventas inválidas, sin stock o ya registradas no detienen el lote:
+     * la respuesta informa el resultado de cada una.
+     */
+    @PostMapping("/lote")
+    @Operation(summary = "Registrar ventas en lote", description = "Registra ventas offline con claves de idempotencia e informa el resultado de cada una")
+    public ResponseEntity<VentaLoteResponseDTO> registrarLote(@Valid @RequestBody VentaLoteRequestDTO loteDTO) {
+        return ResponseEntity.ok(ventaService.registrarLote(loteDTO));
     }
 
     /**
      * Permite buscar ventas aplicando filtros opcionales por sucursal,
-     * fecha y estado de la venta
+     * fecha y estado de la venta. Los resultados se paginan por cursor:
+     * para obtener la página siguiente se envía el {@code nextCursor} recibido.
      */
     @GetMapping
-    @Operation(summary = "Buscar ventas", description = "Filtra por sucursal, fecha y estado (Activas/Todas)")
-    public ResponseEntity<List<VentaResponseDTO>> buscarVenta(@RequestParam(required = false) Long idSucursal,
+    @Operation(summary = "Buscar ventas", description = "Filtra por sucursal, fecha y estado (Activas/Todas), paginando por cursor")
+    public ResponseEntity<VentaPaginaResponseDTO> buscarVenta(@RequestParam(required = false) Long idSucursal,
                                                               @RequestParam(required = false) LocalDate fecha,
-                                                              @RequestParam(required = false, defaultValue = "false") boolean soloActivas) {
+                                                              @RequestParam(required = false, defaultValue = "false") boolean soloActivas,
+                                                              @RequestParam(required = false) String cursor,
+                                                              @RequestParam(required = false, defaultValue = "50") int limite) {
 
-        List<VentaResponseDTO> resultados = ventaService.buscarVentas(idSucursal, fecha, soloActivas);
+        VentaPaginaResponseDTO pagina = ventaService.buscarVentas(idSucursal, fecha, soloActivas, cursor, limite);
 
-        if (resultados.isEmpty()) {
+        if (pagina.ventas().isEmpty() && cursor == null) {
             throw new ResourceNotFoundException("No se encontraron ventas con los filtros proporcionados.");
         }
 
-        return ResponseEntity.ok(resultados);
+        return ResponseEntity.ok(pagina);
+    }
+
+    /**
+     * Exporta las ventas de los días [desde, hasta] en CSV o NDJSON, una línea por producto vendido.
+     * La respuesta se escribe a medida que se leen las filas, sin cargar el listado en memoria,
+     * y se comprime con gzip si el cliente lo acepta.
+     */
+    @GetMapping("/export")
+    @Operation(summary = "Exportar ventas", description = "Descarga las ventas en CSV o NDJSON filtrando por rango de fechas y sucursal. Admite gzip (Accept-Encoding)")
+    public ResponseEntity<StreamingResponseBody> exportarVentas(
+            @RequestParam(required = false, defaultValue = "csv") String formato,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate desde,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate hasta,
+            @RequestParam(required = false) Long idSucursal,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String codificaciones) {
+
+        ExportacionVentasService.Formato tipo = ExportacionVentasService.Formato.desde(formato);
+        exportacionVentasService.validarRango(desde, hasta);
+        boolean gzip = aceptaGzip(codificaciones);
+
+        ResponseEntity.BodyBuilder respuesta = ResponseEntity.ok()
+                .contentType(tipo.getTipoContenido())
+                .header(HttpHeaders.CONTENT_DISPOSITION,
+                        ContentDisposition.attachment().filename("ventas." + tipo.getExtension()).build().toString())
+                .header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        if (gzip) {
+            respuesta.header(HttpHeaders.CONTENT_ENCODING, "gzip");
+        }
+
+        return respuesta.body(salida -> {
+            if (!gzip) {
+                exportacionVentasService.exportar(tipo, desde, hasta, idSucursal, salida);
+                return;
+            }
+            GzipSinCierre comprimida = new GzipSinCierre(salida);
+            try {
+                exportacionVentasService.exportar(tipo, desde, hasta, idSucursal, comprimida);
+                comprimida.finish();
+            } finally {
+                comprimida.liberar();
+            }
+        });
+    }
+
+    /**
+     * Indica si el cliente acepta gzip según Accept-Encoding, respetando los valores q:
+     * {@code gzip;q=0} lo rechaza y {@code *} lo admite si gzip no aparece expresamente.
+     */
+    static boolean aceptaGzip(String codificaciones) {
+        if (codificaciones == null) {
+            return false;
+        }
+        Double calidadGzip = null;
+        Double calidadComodin = null;
+        for (String codificacion : codificaciones.split(",")) {
+            String[] partes = codificacion.split(";");
+            String nombre = partes[0].trim().toLowerCase(Locale.ROOT);
+            double calidad = 1.0;
+            for (int i = 1; i < partes.length; i++) {
+                String parametro = partes[i].trim().toLowerCase(Locale.ROOT);
+                if (parametro.startsWith("q=")) {
+                    try {
+                        calidad = Double.parseDouble(parametro.substring(2).trim());
+                    } catch (NumberFormatException e) {
+                        calidad = 0;
+                    }
+                }
+            }
+            if (nombre.equals("gzip") || nombre.equals("x-gzip")) {
+                calidadGzip = calidadGzip == null ? calidad : Math.max(calidadGzip, calidad);
+            } else if (nombre.equals("*")) {
+                calidadComodin = calidad;
+            }
+        }
+        if (calidadGzip != null) {
+            return calidadGzip > 0;
+        }
+        return calidadComodin != null && calidadComodin > 0;
+    }
+
+    /**
+     * close() liberaría el Deflater pero cerraría también la respuesta, y tras un error escribiría
+     * el trailer gzip: la descarga truncada parecería completa. Aquí el trailer solo se escribe con
+     * finish() al terminar bien, y la memoria nativa del Deflater se libera siempre.
+     */
+    private static final class GzipSinCierre extends GZIPOutputStream {
+
+        GzipSinCierre(OutputStream salida) throws IOException {
+            super(salida, 8192);
+        }
+
+        void liberar() {
+            def.end();
+        }
+    }
+
+    /**
+     * Flujo de ventas en vivo (Server-Sent Events) para el panel: envía cada venta confirmada
+     * como evento {@code venta-registrada} y cada anulación como {@code venta-anulada}.
+     * El {@code id} de cada evento es correlativo; un salto indica mensajes descartados.
+     */
+    @GetMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @Operation(summary = "Ventas en vivo", description = "Flujo SSE con las ventas y anulaciones confirmadas")
+    public SseEmitter streamVentas() {
+        return ventasEnVivoService.suscribir();
     }
 
     //Anula una venta mediante borrado lógico
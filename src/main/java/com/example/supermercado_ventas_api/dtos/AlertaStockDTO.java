@@ -0,0 +1,18 @@
+package com.example.supermercado_ventas_api.dtos;
+
+import java.time.LocalDateTime;
+
+/**
+ * DTO de salida con una alerta de stock bajo: el inventario de un producto
+ * en una sucursal ha llegado a su umbral de reposición o por debajo.
+ */
+public record AlertaStockDTO(
+        Long idInventario,
+        Long idSucursal,
+        String nombreSucursal,
+        Long idProducto,
+        String nombreProducto,
+        Integer cantidad,
+        Integer stockMinimo,
+        LocalDateTime fecha) {
+}
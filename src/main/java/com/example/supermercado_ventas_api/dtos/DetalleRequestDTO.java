@@ -10,6 +10,7 @@ import jakarta.validation.constraints.NotNull;
 public record DetalleRequestDTO(
         @NotNull
         Long idProducto,
+        @NotNull(message = "La cantidad es obligatoria.")
         @Min(value = 1, message = "La cantidad mínima es 1.")
         Integer cantidad
 ) {
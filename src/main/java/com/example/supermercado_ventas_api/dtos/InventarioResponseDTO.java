@@ -1,5 +1,6 @@
 package com.example.supermercado_ventas_api.dtos;
 
+import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 
@@ -7,10 +8,12 @@ import java.math.BigDecimal;
 
 /**
  * DTO de respuesta que representa el estado actual del inventario
- * de un producto en una sucursal.
+ * de un producto en una sucursal. El constructor completo se usa en la
+ * proyección JPQL de la consulta de stock.
  */
 @Data
 @Builder
+@AllArgsConstructor
 public class InventarioResponseDTO {
     private Long id;
     private Long idSucursal;
@@ -19,4 +22,5 @@ public class InventarioResponseDTO {
     private String nombreProducto;
     private BigDecimal precioUnitario;
     private Integer cantidad;
+    private Integer stockMinimo;
 }
@@ -0,0 +1,21 @@
+package com.example.supermercado_ventas_api.dtos;
+
+import com.example.supermercado_ventas_api.models.Producto;
+
+import java.math.BigDecimal;
+
+/**
+ * DTO de respuesta con los datos públicos de un producto del catálogo.
+ */
+public record ProductoResponseDTO(
+        Long id,
+        String nombreProducto,
+        BigDecimal precioProducto,
+        String categoria
+) {
+
+    public static ProductoResponseDTO desde(Producto producto) {
+        return new ProductoResponseDTO(producto.getId(), producto.getNombreProducto(),
+                producto.getPrecioProducto(), producto.getCategoria());
+    }
+}
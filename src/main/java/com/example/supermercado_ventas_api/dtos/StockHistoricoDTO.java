@@ -0,0 +1,11 @@
+package com.example.supermercado_ventas_api.dtos;
+
+/**
+ * DTO de salida con el stock que tenía un producto en una sucursal en la fecha consultada,
+ * reconstruido a partir del libro de movimientos.
+ */
+public record StockHistoricoDTO(
+        Long idSucursal,
+        Long idProducto,
+        Integer cantidad) {
+}
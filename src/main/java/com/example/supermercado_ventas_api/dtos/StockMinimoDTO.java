@@ -0,0 +1,13 @@
+package com.example.supermercado_ventas_api.dtos;
+
+import jakarta.validation.constraints.Min;
+
+/**
+ * DTO de entrada para definir el umbral de reposición de un inventario.
+ * Un valor nulo elimina el umbral y deja de vigilarse el stock.
+ */
+public record StockMinimoDTO(
+        @Min(value = 0, message = "El stock mínimo no puede ser negativo.")
+        Integer stockMinimo
+) {
+}
@@ -0,0 +1,17 @@
+package com.example.supermercado_ventas_api.dtos;
+
+import com.example.supermercado_ventas_api.models.Sucursal;
+
+/**
+ * DTO de respuesta con los datos de una sucursal.
+ */
+public record SucursalResponseDTO(
+        Long id,
+        String nombreSucursal,
+        String direccion
+) {
+
+    public static SucursalResponseDTO desde(Sucursal sucursal) {
+        return new SucursalResponseDTO(sucursal.getId(), sucursal.getNombreSucursal(), sucursal.getDireccion());
+    }
+}
@@ -0,0 +1,23 @@
+package com.example.supermercado_ventas_api.dtos;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Fila de la exportación de ventas: un producto vendido con los datos de su venta.
+ * Una venta con varios productos ocupa varias filas consecutivas.
+ */
+public record VentaExportacionDTO(
+        Long idVenta,
+        LocalDateTime fecha,
+        Long idSucursal,
+        String nombreSucursal,
+        Boolean activa,
+        BigDecimal totalVenta,
+        Long idProducto,
+        String nombreProducto,
+        String categoria,
+        Integer cantidad,
+        BigDecimal precioUnidad,
+        BigDecimal subtotal) {
+}
@@ -0,0 +1,20 @@
+package com.example.supermercado_ventas_api.dtos;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+
+/**
+ * DTO que representa una venta dentro de un lote, identificada por la clave
+ * de idempotencia generada en la caja para poder reenviarla sin duplicarla.
+ */
+public record VentaLoteItemDTO(
+        @NotBlank(message = "La clave de idempotencia es obligatoria.")
+        @Size(max = 100, message = "La clave de idempotencia no puede superar los 100 caracteres.")
+        String claveIdempotencia,
+        @NotNull(message = "La venta es obligatoria.")
+        @Valid
+        VentaRequestDTO venta) {
+
+}
@@ -0,0 +1,17 @@
+package com.example.supermercado_ventas_api.dtos;
+
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+
+import java.util.List;
+
+/**
+ * DTO de entrada utilizado para registrar en bloque las ventas acumuladas
+ * por una caja mientras estuvo sin conexión. Cada venta se valida por separado.
+ */
+public record VentaLoteRequestDTO(
+        @NotEmpty(message = "El lote debe contener al menos una venta.")
+        @Size(max = 5000, message = "El lote no puede superar las 5000 ventas.")
+        List<VentaLoteItemDTO> ventas) {
+
+}
@@ -0,0 +1,15 @@
+package com.example.supermercado_ventas_api.dtos;
+
+import java.util.List;
+
+/**
+ * DTO de respuesta del registro en bloque: totales por estado y el resultado
+ * de cada venta en el mismo orden en que se recibieron.
+ */
+public record VentaLoteResponseDTO(
+        long registradas,
+        long duplicadas,
+        long rechazadas,
+        List<VentaLoteResultadoDTO> resultados) {
+
+}
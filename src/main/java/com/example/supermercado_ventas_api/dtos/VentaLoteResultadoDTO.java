@@ -0,0 +1,18 @@
+package com.example.supermercado_ventas_api.dtos;
+
+/**
+ * DTO de respuesta con el resultado de una venta del lote. {@code idVenta} se informa
+ * para las ventas registradas y duplicadas, y {@code mensaje} para las rechazadas.
+ */
+public record VentaLoteResultadoDTO(
+        String claveIdempotencia,
+        Estado estado,
+        Long idVenta,
+        String mensaje) {
+
+    public enum Estado {
+        REGISTRADA,
+        DUPLICADA,
+        RECHAZADA
+    }
+}
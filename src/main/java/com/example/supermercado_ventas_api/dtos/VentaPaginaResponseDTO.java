@@ -0,0 +1,13 @@
+package com.example.supermercado_ventas_api.dtos;
+
+import java.util.List;
+
+/**
+ * DTO de respuesta que representa una página de ventas obtenida
+ * mediante paginación por cursor. {@code nextCursor} es nulo en la última página.
+ */
+public record VentaPaginaResponseDTO(
+        List<VentaResponseDTO> ventas,
+        String nextCursor) {
+
+}
@@ -0,0 +1,14 @@
+package com.example.supermercado_ventas_api.events;
+
+import com.example.supermercado_ventas_api.models.TipoMovimiento;
+
+/**
+ * Evento publicado cuando un administrador repone o corrige el stock de un inventario,
+ * con la variación aplicada (la cantidad final no basta para auditar el cambio).
+ */
+public record AjusteStockEvent(
+        TipoMovimiento tipo,
+        Long idSucursal,
+        Long idProducto,
+        int variacion) {
+}
@@ -0,0 +1,11 @@
+package com.example.supermercado_ventas_api.events;
+
+import com.example.supermercado_ventas_api.dtos.InventarioResponseDTO;
+
+/**
+ * Evento publicado al crear o modificar un inventario (reposición, ajuste de
+ * cantidad o de umbral), con su estado tras el cambio.
+ */
+public record InventarioActualizadoEvent(
+        InventarioResponseDTO inventario) {
+}
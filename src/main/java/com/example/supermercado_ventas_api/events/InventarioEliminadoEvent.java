@@ -0,0 +1,8 @@
+package com.example.supermercado_ventas_api.events;
+
+/**
+ * Evento publicado al eliminar un registro de inventario.
+ */
+public record InventarioEliminadoEvent(
+        Long idInventario) {
+}
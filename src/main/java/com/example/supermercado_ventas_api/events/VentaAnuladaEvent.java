@@ -0,0 +1,12 @@
+package com.example.supermercado_ventas_api.events;
+
+import com.example.supermercado_ventas_api.dtos.VentaResponseDTO;
+
+/**
+ * Evento publicado al anular (borrado lógico) una venta,
+ * con el contenido que tenía la venta antes de reponer el stock.
+ */
+public record VentaAnuladaEvent(
+        Long idSucursal,
+        VentaResponseDTO venta) {
+}
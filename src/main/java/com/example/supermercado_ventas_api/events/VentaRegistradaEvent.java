@@ -0,0 +1,12 @@
+package com.example.supermercado_ventas_api.events;
+
+import com.example.supermercado_ventas_api.dtos.VentaResponseDTO;
+
+/**
+ * Evento publicado al registrar una venta. Los listeners lo reciben
+ * una vez confirmada la transacción, por lo que la venta ya es visible.
+ */
+public record VentaRegistradaEvent(
+        Long idSucursal,
+        VentaResponseDTO venta) {
+}
@@ -0,0 +1,12 @@
+package com.example.supermercado_ventas_api.exceptions;
+
+/**
+ * Excepción utilizada cuando el servidor rechaza una petición por haber
+ * alcanzado un límite de capacidad (ej. máximo de conexiones SSE).
+ */
+public class ServicioSaturadoException extends RuntimeException {
+
+    public ServicioSaturadoException(String message) {
+        super(message);
+    }
+}
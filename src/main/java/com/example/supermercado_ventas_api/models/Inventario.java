@@ -15,10 +15,16 @@ import lombok.NoArgsConstructor;
 @NoArgsConstructor
 @AllArgsConstructor
 @Builder
-@Table(uniqueConstraints = {@UniqueConstraint(columnNames = {"id_sucursal", "id_producto"})})
+@Table(uniqueConstraints = {@UniqueConstraint(columnNames = {"id_sucursal", "id_producto"})},
+        indexes = {
+                @Index(name = "idx_inventario_producto", columnList = "id_producto"),
+                // Con una sucursal fija, recorre sus filas en orden de ID para la paginación por cursor
+                @Index(name = "idx_inventario_sucursal", columnList = "id_sucursal")
+        })
 public class Inventario {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "inventario_seq")
+    @SequenceGenerator(name = "inventario_seq", sequenceName = "inventario_seq", allocationSize = 50)
     private Long id;
 
     @ManyToOne
@@ -31,4 +37,12 @@ public class Inventario {
 
     @Column(nullable = false)
     private Integer cantidad;
+
+    // Umbral de reposición: al llegar a esta cantidad o menos se emite una alerta de stock bajo (nulo = sin alerta)
+    @Column(name = "stock_minimo")
+    private Integer stockMinimo;
+
+    // Control de concurrencia optimista frente a reposiciones y ventas simultáneas
+    @Version
+    private Long version;
 }
@@ -0,0 +1,53 @@
+package com.example.supermercado_ventas_api.models;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Entrada del libro de auditoría de stock: un cambio confirmado en la cantidad de un producto
+ * en una sucursal. Guarda IDs sin claves foráneas para que el historial sobreviva al borrado
+ * de inventarios, productos o sucursales. Solo se inserta, nunca se modifica.
+ */
+@Entity
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Table(name = "movimientos_stock", indexes = {
+        @Index(name = "idx_movimientos_sucursal_producto_fecha", columnList = "id_sucursal, id_producto, fecha")
+})
+public class MovimientoStock {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private TipoMovimiento tipo;
+
+    @Column(name = "id_sucursal", nullable = false)
+    private Long idSucursal;
+
+    @Column(name = "id_producto", nullable = false)
+    private Long idProducto;
+
+    // Variación de la cantidad: negativa en ventas, positiva en anulaciones y entradas
+    @Column(nullable = false)
+    private Integer cantidad;
+
+    // Venta que originó el movimiento (ventas y anulaciones)
+    @Column(name = "id_venta")
+    private Long idVenta;
+
+    // Usuario autenticado que hizo el cambio, si lo había
+    @Column(length = 100)
+    private String usuario;
+
+    @Column(nullable = false)
+    private LocalDateTime fecha;
+}
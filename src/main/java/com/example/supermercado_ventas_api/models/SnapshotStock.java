@@ -0,0 +1,46 @@
+package com.example.supermercado_ventas_api.models;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Saldo acumulado del libro de movimientos para un producto en una sucursal: la suma de todos
+ * sus movimientos hasta {@code idUltimoMovimiento}. Permite reconstruir el stock en una fecha
+ * sin recorrer el libro desde el principio. Solo se inserta, nunca se modifica.
+ */
+@Entity
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Table(name = "snapshots_stock", indexes = {
+        @Index(name = "idx_snapshots_fecha", columnList = "fecha"),
+        @Index(name = "idx_snapshots_sucursal_producto_fecha", columnList = "id_sucursal, id_producto, fecha")
+})
+public class SnapshotStock {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "id_sucursal", nullable = false)
+    private Long idSucursal;
+
+    @Column(name = "id_producto", nullable = false)
+    private Long idProducto;
+
+    @Column(nullable = false)
+    private Integer cantidad;
+
+    // Corte del libro: incluye todos los movimientos con ID menor o igual
+    @Column(name = "id_ultimo_movimiento", nullable = false)
+    private Long idUltimoMovimiento;
+
+    // Momento de generación; todos los movimientos incluidos son anteriores
+    @Column(nullable = false)
+    private LocalDateTime fecha;
+}
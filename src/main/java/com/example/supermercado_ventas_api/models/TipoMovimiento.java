@@ -0,0 +1,17 @@
+package com.example.supermercado_ventas_api.models;
+
+/**
+ * Origen de un movimiento de stock registrado en el libro de movimientos.
+ */
+public enum TipoMovimiento {
+    VENTA,
+    ANULACION,
+    // Reposición desde POST /api/inventarios (suma a la cantidad existente)
+    ENTRADA,
+    // Corrección manual desde PUT /api/inventarios/{id} (fija la cantidad)
+    AJUSTE,
+    // Retirada del stock restante al eliminar el inventario
+    BAJA,
+    // Saldo de un inventario que ya existía cuando se creó el libro
+    APERTURA
+}
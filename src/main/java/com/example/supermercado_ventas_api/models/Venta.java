@@ -23,10 +23,17 @@ import java.util.List;
 @NoArgsConstructor
 @AllArgsConstructor
 @Builder
-@Table(name = "ventas")
+@Table(name = "ventas", indexes = {
+        @Index(name = "idx_ventas_sucursal_fecha", columnList = "sucursal_id, fecha"),
+        @Index(name = "idx_ventas_activa_fecha", columnList = "activa, fecha")
+}, uniqueConstraints = {
+        @UniqueConstraint(name = "uk_ventas_clave_idempotencia", columnNames = "clave_idempotencia")
+})
 public class Venta {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    // Secuencia con asignación por bloques (pooled): a diferencia de IDENTITY, permite agrupar los INSERT en lotes JDBC
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "ventas_seq")
+    @SequenceGenerator(name = "ventas_seq", sequenceName = "ventas_seq", allocationSize = 50)
     private Long id;
 
     @NotNull(message = "La fecha es obligatoria.")
@@ -51,4 +58,8 @@ public class Venta {
     @NotEmpty(message = "La venta debe tener al menos un producto.")
     @OneToMany(mappedBy = "venta", cascade = CascadeType.ALL, orphanRemoval = true)
     private List<VentaDetalle> detalles = new ArrayList<>();
+
+    // Clave enviada por la caja para que reenviar la misma venta no la registre dos veces
+    @Column(name = "clave_idempotencia", length = 100)
+    private String claveIdempotencia;
 }
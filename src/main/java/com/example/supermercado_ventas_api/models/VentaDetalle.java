@@ -13,11 +13,14 @@ import lombok.*;
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
-@Table(name = "venta_detalles")
+@Table(name = "venta_detalles", indexes = {
+        @Index(name = "idx_venta_detalles_producto", columnList = "producto_id")
+})
 @Builder
 public class VentaDetalle {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "venta_detalles_seq")
+    @SequenceGenerator(name = "venta_detalles_seq", sequenceName = "venta_detalles_seq", allocationSize = 50)
     private Long id;
 
     @ManyToOne(fetch = FetchType.LAZY)
@@ -0,0 +1,39 @@
+package com.example.supermercado_ventas_api.models;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * Entidad que acumula, por sucursal y día, el importe total y el número
+ * de ventas activas. Se mantiene de forma incremental al registrar y anular ventas.
+ */
+@Entity
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Table(name = "ventas_diarias", uniqueConstraints = {@UniqueConstraint(columnNames = {"sucursal_id", "fecha"})})
+public class VentaDiaria {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "sucursal_id", nullable = false)
+    private Sucursal sucursal;
+
+    @Column(nullable = false)
+    private LocalDate fecha;
+
+    @Column(nullable = false)
+    private BigDecimal totalVentas;
+
+    @Column(nullable = false)
+    private Long numeroVentas;
+}
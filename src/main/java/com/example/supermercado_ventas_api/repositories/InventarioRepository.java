@@ -1,24 +1,71 @@
 package com.example.supermercado_ventas_api.repositories;
 
+import com.example.supermercado_ventas_api.dtos.InventarioResponseDTO;
 import com.example.supermercado_ventas_api.models.Inventario;
 import com.example.supermercado_ventas_api.models.Producto;
 import com.example.supermercado_ventas_api.models.Sucursal;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 /**
  * Repositorio encargado de la persistencia y consulta
  * de datos relacionados con el inventario.
  */
-public interface InventarioRepository extends JpaRepository<Inventario, Long> {
+public interface InventarioRepository extends JpaRepository<Inventario, Long>, InventarioRepositoryCustom {
 
     Optional<Inventario> findBySucursalAndProducto(Sucursal sucursal, Producto producto);
 
-    List<Inventario> findBySucursalId(Long sucursalId);
-
-    List<Inventario> findByProductoId(Long productoId);
+    // Consulta de stock proyectada directamente al DTO, sin hidratar Inventario, Sucursal ni Producto.
+    // Los cuatro filtros opcionales y el cursor por ID se resuelven en SQL
+    @Query("SELECT new com.example.supermercado_ventas_api.dtos.InventarioResponseDTO(" +
+            "i.id, s.id, s.nombreSucursal, p.id, p.nombreProducto, p.precioProducto, i.cantidad, i.stockMinimo) " +
+            "FROM Inventario i JOIN i.sucursal s JOIN i.producto p WHERE " +
+            "(:idSucursal IS NULL OR i.sucursal.id = :idSucursal) AND " +
+            "(:idProducto IS NULL OR i.producto.id = :idProducto) AND " +
+            "(:cursorId IS NULL OR i.id > :cursorId) " +
+            "ORDER BY i.id")
+    List<InventarioResponseDTO> findStock(@Param("idSucursal") Long idSucursal,
+                                          @Param("idProducto") Long idProducto,
+                                          @Param("cursorId") Long cursorId,
+                                          Pageable pageable);
 
     boolean existsByProducto_Id(Long productoId);
+
+    // Inventarios con umbral de reposición, para reconstruir el estado del motor de alertas al arrancar
+    @Query("SELECT new com.example.supermercado_ventas_api.dtos.InventarioResponseDTO(" +
+            "i.id, s.id, s.nombreSucursal, p.id, p.nombreProducto, p.precioProducto, i.cantidad, i.stockMinimo) " +
+            "FROM Inventario i JOIN i.sucursal s JOIN i.producto p WHERE i.stockMinimo IS NOT NULL")
+    List<InventarioResponseDTO> findConStockMinimo();
+
+    // Cantidad y versión actuales de varios inventarios: [id, cantidad, version]
+    @Query("SELECT i.id, i.cantidad, i.version FROM Inventario i WHERE i.id IN :ids")
+    List<Object[]> findCantidadYVersionByIdIn(@Param("ids") Collection<Long> ids);
+
+    @Query("SELECT i FROM Inventario i JOIN FETCH i.sucursal JOIN FETCH i.producto " +
+            "WHERE i.sucursal.id = :idSucursal AND i.producto.id IN :idsProducto")
+    List<Inventario> findBySucursalIdAndProductoIdIn(@Param("idSucursal") Long idSucursal,
+                                                     @Param("idsProducto") Collection<Long> idsProducto);
+
+    // Bloquea las filas de inventario de varias sucursales y productos; el orden por ID evita interbloqueos
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT i FROM Inventario i WHERE i.sucursal.id IN :idsSucursal AND i.producto.id IN :idsProducto ORDER BY i.id")
+    List<Inventario> findParaActualizar(@Param("idsSucursal") Collection<Long> idsSucursal,
+                                        @Param("idsProducto") Collection<Long> idsProducto);
+
+    // Carga en una sola consulta el inventario de varios productos de una sucursal, indexado por ID de producto
+    default Map<Long, Inventario> findMapaBySucursalIdAndProductoIds(Long idSucursal, Collection<Long> idsProducto) {
+        return findBySucursalIdAndProductoIdIn(idSucursal, idsProducto).stream()
+                .collect(Collectors.toMap(i -> i.getProducto().getId(), Function.identity()));
+    }
 }
@@ -0,0 +1,21 @@
+package com.example.supermercado_ventas_api.repositories;
+
+import java.util.Map;
+
+/**
+ * Operaciones de inventario que se resuelven directamente en base de datos,
+ * sin cargar las entidades en memoria.
+ */
+public interface InventarioRepositoryCustom {
+
+    /**
+     * Descuenta de forma atómica el stock de varios productos de una sucursal
+     * en un único lote JDBC. Cada sentencia solo afecta a la fila si hay stock suficiente,
+     * por lo que un valor 0 en la posición correspondiente indica que el descuento no se aplicó.
+     *
+     * @param idSucursal            sucursal donde se realiza la venta
+     * @param cantidadesPorProducto cantidad a descontar por ID de producto (en orden de iteración)
+     * @return filas afectadas por cada producto, en el mismo orden del mapa
+     */
+    int[] descontarStock(Long idSucursal, Map<Long, Integer> cantidadesPorProducto);
+}
@@ -0,0 +1,36 @@
+package com.example.supermercado_ventas_api.repositories;
+
+import jakarta.persistence.EntityManager;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Implementación JDBC de {@link InventarioRepositoryCustom}.
+ * El UPDATE condicional evita la lectura previa y la sobreventa entre cajas concurrentes,
+ * e incrementa la versión de la fila para que las modificaciones optimistas en curso detecten el cambio.
+ */
+@RequiredArgsConstructor
+public class InventarioRepositoryCustomImpl implements InventarioRepositoryCustom {
+
+    private static final String SQL_DESCONTAR_STOCK =
+            "UPDATE inventario SET cantidad = cantidad - ?, version = version + 1 " +
+                    "WHERE id_sucursal = ? AND id_producto = ? AND cantidad >= ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final EntityManager entityManager;
+
+    @Override
+    public int[] descontarStock(Long idSucursal, Map<Long, Integer> cantidadesPorProducto) {
+        // JDBC no dispara el auto-flush de Hibernate: los INSERT de inventario pendientes deben llegar antes
+        entityManager.flush();
+
+        List<Object[]> parametros = cantidadesPorProducto.entrySet().stream()
+                .map(e -> new Object[]{e.getValue(), idSucursal, e.getKey(), e.getValue()})
+                .toList();
+
+        return jdbcTemplate.batchUpdate(SQL_DESCONTAR_STOCK, parametros);
+    }
+}
@@ -0,0 +1,10 @@
+package com.example.supermercado_ventas_api.repositories;
+
+import com.example.supermercado_ventas_api.models.MovimientoStock;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+/**
+ * Repositorio del libro de auditoría de movimientos de stock.
+ */
+public interface MovimientoStockRepository extends JpaRepository<MovimientoStock, Long>, MovimientoStockRepositoryCustom {
+}
@@ -0,0 +1,26 @@
+package com.example.supermercado_ventas_api.repositories;
+
+import com.example.supermercado_ventas_api.models.MovimientoStock;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Escritura en bloque del libro de movimientos de stock.
+ */
+public interface MovimientoStockRepositoryCustom {
+
+    /**
+     * Inserta los movimientos en lotes JDBC dentro de una única transacción: o se guardan
+     * todos o ninguno, de modo que un lote fallido puede reintentarse sin duplicados.
+     */
+    void insertarLote(List<MovimientoStock> movimientos);
+
+    /**
+     * Abre el libro para los inventarios que aún no tienen ningún movimiento, con un movimiento
+     * APERTURA por su cantidad actual.
+     *
+     * @return número de inventarios abiertos
+     */
+    int registrarApertura(LocalDateTime fecha);
+}
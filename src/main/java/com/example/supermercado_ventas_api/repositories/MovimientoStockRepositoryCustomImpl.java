@@ -0,0 +1,50 @@
+package com.example.supermercado_ventas_api.repositories;
+
+import com.example.supermercado_ventas_api.models.MovimientoStock;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Implementación JDBC de {@link MovimientoStockRepositoryCustom}. Evita el contexto de
+ * persistencia: con rewriteBatchedStatements MySQL recibe un único INSERT multifila por lote.
+ */
+@RequiredArgsConstructor
+public class MovimientoStockRepositoryCustomImpl implements MovimientoStockRepositoryCustom {
+
+    private static final String SQL_INSERTAR =
+            "INSERT INTO movimientos_stock (tipo, id_sucursal, id_producto, cantidad, id_venta, usuario, fecha) " +
+                    "VALUES (?, ?, ?, ?, ?, ?, ?)";
+
+    private static final String SQL_APERTURA =
+            "INSERT INTO movimientos_stock (tipo, id_sucursal, id_producto, cantidad, fecha) " +
+                    "SELECT 'APERTURA', i.id_sucursal, i.id_producto, i.cantidad, ? FROM inventario i " +
+                    "WHERE i.cantidad <> 0 AND NOT EXISTS (SELECT 1 FROM movimientos_stock m " +
+                    "WHERE m.id_sucursal = i.id_sucursal AND m.id_producto = i.id_producto)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Override
+    @Transactional
+    public void insertarLote(List<MovimientoStock> movimientos) {
+        jdbcTemplate.batchUpdate(SQL_INSERTAR, movimientos, movimientos.size(), (ps, m) -> {
+            ps.setString(1, m.getTipo().name());
+            ps.setLong(2, m.getIdSucursal());
+            ps.setLong(3, m.getIdProducto());
+            ps.setInt(4, m.getCantidad());
+            ps.setObject(5, m.getIdVenta());
+            ps.setString(6, m.getUsuario());
+            ps.setTimestamp(7, Timestamp.valueOf(m.getFecha()));
+        });
+    }
+
+    @Override
+    @Transactional
+    public int registrarApertura(LocalDateTime fecha) {
+        return jdbcTemplate.update(SQL_APERTURA, Timestamp.valueOf(fecha));
+    }
+}
@@ -0,0 +1,10 @@
+package com.example.supermercado_ventas_api.repositories;
+
+import com.example.supermercado_ventas_api.models.SnapshotStock;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+/**
+ * Repositorio de los snapshots periódicos del libro de movimientos de stock.
+ */
+public interface SnapshotStockRepository extends JpaRepository<SnapshotStock, Long>, SnapshotStockRepositoryCustom {
+}
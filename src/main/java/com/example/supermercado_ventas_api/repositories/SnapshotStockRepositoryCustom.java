@@ -0,0 +1,31 @@
+package com.example.supermercado_ventas_api.repositories;
+
+import com.example.supermercado_ventas_api.dtos.StockHistoricoDTO;
+
+import java.time.Clock;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Generación de snapshots y consulta del stock en una fecha a partir del libro de movimientos.
+ */
+public interface SnapshotStockRepositoryCustom {
+
+    /**
+     * Crea un snapshot por cada producto y sucursal con movimientos desde el corte anterior:
+     * su saldo previo más la suma de esos movimientos. Los pares sin movimientos nuevos
+     * conservan su último snapshot. La fecha del snapshot se toma del reloj después de fijar
+     * el corte, de modo que es posterior a todos los movimientos incluidos.
+     *
+     * @return número de snapshots creados
+     */
+    int generar(Clock reloj);
+
+    /**
+     * Stock de cada producto en la fecha indicada: el último snapshot anterior a la fecha
+     * más los movimientos posteriores a su corte y anteriores a la fecha.
+     *
+     * @param idSucursal sucursal a consultar, o null para todas
+     */
+    List<StockHistoricoDTO> stockEn(LocalDateTime fecha, Long idSucursal);
+}
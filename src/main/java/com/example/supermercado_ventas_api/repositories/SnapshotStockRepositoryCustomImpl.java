@@ -0,0 +1,156 @@
+package com.example.supermercado_ventas_api.repositories;
+
+import com.example.supermercado_ventas_api.dtos.StockHistoricoDTO;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Timestamp;
+import java.time.Clock;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+/**
+ * Implementación JDBC de {@link SnapshotStockRepositoryCustom}. El libro solo lo escribe el hilo
+ * de auditoría, en orden de ID y en lotes atómicos, así que el mayor ID visible es un corte
+ * coherente: ningún movimiento confirmado después tendrá un ID menor. La consulta recorre solo
+ * los movimientos posteriores al último corte (rango de clave primaria) y busca el último
+ * snapshot de cada producto con el índice (sucursal, producto, fecha), no el historial entero.
+ */
+@RequiredArgsConstructor
+public class SnapshotStockRepositoryCustomImpl implements SnapshotStockRepositoryCustom {
+
+    private static final int PARES_POR_CONSULTA = 500;
+
+    private static final String SQL_ULTIMO_MOVIMIENTO = "SELECT MAX(id) FROM movimientos_stock";
+
+    private static final String SQL_ULTIMO_CORTE =
+            "SELECT COALESCE(MAX(id_ultimo_movimiento), 0) FROM snapshots_stock";
+
+    // Los cortes crecen con la fecha: basta el snapshot más reciente anterior a la fecha
+    private static final String SQL_CORTE_EN =
+            "SELECT id_ultimo_movimiento FROM snapshots_stock WHERE fecha <= ? ORDER BY fecha DESC, id DESC LIMIT 1";
+
+    // Último snapshot de cada producto y sucursal; en empate de fecha gana el de mayor ID (orden de lectura)
+    private static final String SQL_SALDOS =
+            "SELECT s.id_sucursal, s.id_producto, s.cantidad FROM snapshots_stock s " +
+                    "JOIN (SELECT id_sucursal, id_producto, MAX(fecha) AS fecha FROM snapshots_stock%s " +
+                    "GROUP BY id_sucursal, id_producto) u " +
+                    "ON s.id_sucursal = u.id_sucursal AND s.id_producto = u.id_producto AND s.fecha = u.fecha " +
+                    "ORDER BY s.id";
+
+    // Sin filtro de sucursal a propósito: con él el optimizador puede preferir el índice por sucursal
+    // y recorrer todo su historial en vez del rango de clave primaria, que es lo que acota la consulta
+    private static final String SQL_MOVIMIENTOS =
+            "SELECT id_sucursal, id_producto, SUM(cantidad) FROM movimientos_stock " +
+                    "WHERE id > ? AND id <= ?%s GROUP BY id_sucursal, id_producto";
+
+    private static final String SQL_INSERTAR =
+            "INSERT INTO snapshots_stock (id_sucursal, id_producto, cantidad, id_ultimo_movimiento, fecha) " +
+                    "VALUES (?, ?, ?, ?, ?)";
+
+    private record Par(Long idSucursal, Long idProducto) {
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Override
+    @Transactional
+    public int generar(Clock reloj) {
+        long corteAnterior = jdbcTemplate.queryForObject(SQL_ULTIMO_CORTE, Long.class);
+        Long ultimoMovimiento = jdbcTemplate.queryForObject(SQL_ULTIMO_MOVIMIENTO, Long.class);
+        if (ultimoMovimiento == null || ultimoMovimiento <= corteAnterior) {
+            return 0;
+        }
+        // Después de fijar el corte: todo movimiento incluido se escribió antes de esta fecha
+        Timestamp momento = Timestamp.valueOf(LocalDateTime.now(reloj));
+
+        // Todo el rango de IDs, sin filtrar por fecha: lo que quede por debajo del corte
+        // fuera del snapshot no lo volvería a sumar ninguna consulta
+        Map<Par, Integer> variaciones = variaciones(corteAnterior, ultimoMovimiento, null);
+        Map<Par, Integer> saldos = saldosDe(variaciones.keySet());
+
+        List<Object[]> filas = new ArrayList<>(variaciones.size());
+        variaciones.forEach((par, variacion) -> filas.add(new Object[]{par.idSucursal(), par.idProducto(),
+                saldos.getOrDefault(par, 0) + variacion, ultimoMovimiento, momento}));
+        jdbcTemplate.batchUpdate(SQL_INSERTAR, filas);
+        return filas.size();
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<StockHistoricoDTO> stockEn(LocalDateTime fecha, Long idSucursal) {
+        Timestamp momento = Timestamp.valueOf(fecha);
+        long corte = jdbcTemplate.queryForList(SQL_CORTE_EN, Long.class, momento).stream().findFirst().orElse(0L);
+
+        Map<Par, Integer> stock = saldos(momento, idSucursal);
+        variaciones(corte, Long.MAX_VALUE, momento).forEach((par, variacion) -> {
+            if (idSucursal == null || idSucursal.equals(par.idSucursal())) {
+                stock.merge(par, variacion, Integer::sum);
+            }
+        });
+
+        return stock.entrySet().stream()
+                .map(e -> new StockHistoricoDTO(e.getKey().idSucursal(), e.getKey().idProducto(), e.getValue()))
+                .sorted(Comparator.comparing(StockHistoricoDTO::idSucursal).thenComparing(StockHistoricoDTO::idProducto))
+                .toList();
+    }
+
+    // Saldo del último snapshot de cada par hasta la fecha (null: sin límite), opcionalmente de una sucursal
+    private Map<Par, Integer> saldos(Timestamp hasta, Long idSucursal) {
+        List<String> condiciones = new ArrayList<>();
+        List<Object> parametros = new ArrayList<>();
+        if (hasta != null) {
+            condiciones.add("fecha <= ?");
+            parametros.add(hasta);
+        }
+        if (idSucursal != null) {
+            condiciones.add("id_sucursal = ?");
+            parametros.add(idSucursal);
+        }
+        String filtro = condiciones.isEmpty() ? "" : " WHERE " + String.join(" AND ", condiciones);
+        return sumas(SQL_SALDOS.formatted(filtro), parametros.toArray());
+    }
+
+    // Saldo del último snapshot de cada par indicado, por tramos para acotar el tamaño de la sentencia
+    private Map<Par, Integer> saldosDe(Collection<Par> pares) {
+        Map<Par, Integer> resultado = new HashMap<>();
+        List<Par> lista = List.copyOf(pares);
+        for (int desde = 0; desde < lista.size(); desde += PARES_POR_CONSULTA) {
+            List<Par> tramo = lista.subList(desde, Math.min(desde + PARES_POR_CONSULTA, lista.size()));
+            String filtro = " WHERE (id_sucursal, id_producto) IN (" +
+                    String.join(", ", Collections.nCopies(tramo.size(), "(?, ?)")) + ")";
+            Object[] parametros = tramo.stream()
+                    .flatMap(par -> Stream.of(par.idSucursal(), par.idProducto()))
+                    .toArray();
+            resultado.putAll(sumas(SQL_SALDOS.formatted(filtro), parametros));
+        }
+        return resultado;
+    }
+
+    // Suma de los movimientos con ID en (desdeId, hastaId], opcionalmente solo los anteriores a una fecha
+    private Map<Par, Integer> variaciones(long desdeId, long hastaId, Timestamp hasta) {
+        if (hasta == null) {
+            return sumas(SQL_MOVIMIENTOS.formatted(""), desdeId, hastaId);
+        }
+        return sumas(SQL_MOVIMIENTOS.formatted(" AND fecha <= ?"), desdeId, hastaId, hasta);
+    }
+
+    // Ejecuta una consulta agrupada por (sucursal, producto); una fila posterior del mismo par sustituye a la anterior
+    private Map<Par, Integer> sumas(String sql, Object... parametros) {
+        Map<Par, Integer> resultado = new HashMap<>();
+        jdbcTemplate.query(sql,
+                rs -> {
+                    resultado.put(new Par(rs.getLong(1), rs.getLong(2)), rs.getInt(3));
+                },
+                parametros);
+        return resultado;
+    }
+}
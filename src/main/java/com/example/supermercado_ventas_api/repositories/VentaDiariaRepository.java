@@ -0,0 +1,26 @@
+package com.example.supermercado_ventas_api.repositories;
+
+import com.example.supermercado_ventas_api.models.VentaDiaria;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Repositorio encargado de la persistencia y consulta
+ * del resumen diario de ventas por sucursal.
+ */
+public interface VentaDiariaRepository extends JpaRepository<VentaDiaria, Long>, VentaDiariaRepositoryCustom {
+
+    // Devuelve [fecha, total, número de ventas] por día, omitiendo los días cuyas ventas fueron todas anuladas
+    @Query("SELECT d.fecha, SUM(d.totalVentas), SUM(d.numeroVentas) FROM VentaDiaria d WHERE " +
+            "(:idSucursal IS NULL OR d.sucursal.id = :idSucursal) AND " +
+            "(:desde IS NULL OR d.fecha >= :desde) AND " +
+            "(:hasta IS NULL OR d.fecha <= :hasta) " +
+            "GROUP BY d.fecha HAVING SUM(d.numeroVentas) > 0 ORDER BY d.fecha ASC")
+    List<Object[]> findResumenDiario(@Param("idSucursal") Long idSucursal,
+                                     @Param("desde") LocalDate desde,
+                                     @Param("hasta") LocalDate hasta);
+}
@@ -0,0 +1,16 @@
+package com.example.supermercado_ventas_api.repositories;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * Operaciones de mantenimiento incremental del resumen diario de ventas.
+ */
+public interface VentaDiariaRepositoryCustom {
+
+    /**
+     * Suma un importe y un número de ventas al resumen de la sucursal en el día indicado,
+     * creando la fila si todavía no existe. Valores negativos descuentan (anulaciones).
+     */
+    void acumular(Long idSucursal, LocalDate fecha, BigDecimal importe, long ventas);
+}
@@ -0,0 +1,30 @@
+package com.example.supermercado_ventas_api.repositories;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * Implementación JDBC de {@link VentaDiariaRepositoryCustom}.
+ * Una única sentencia crea la fila del día o acumula sobre ella. La secuencia UPDATE / INSERT /
+ * UPDATE que la precedía provocaba interbloqueos en InnoDB (REPEATABLE READ): dos cajas con la
+ * primera venta del día tomaban el bloqueo del hueco con el UPDATE vacío y se bloqueaban
+ * mutuamente el INSERT, y MySQL deshacía una de las ventas.
+ */
+@RequiredArgsConstructor
+public class VentaDiariaRepositoryCustomImpl implements VentaDiariaRepositoryCustom {
+
+    private static final String SQL_ACUMULAR =
+            "INSERT INTO ventas_diarias (sucursal_id, fecha, total_ventas, numero_ventas) VALUES (?, ?, ?, ?) " +
+                    "ON DUPLICATE KEY UPDATE total_ventas = total_ventas + VALUES(total_ventas), " +
+                    "numero_ventas = numero_ventas + VALUES(numero_ventas)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Override
+    public void acumular(Long idSucursal, LocalDate fecha, BigDecimal importe, long ventas) {
+        jdbcTemplate.update(SQL_ACUMULAR, idSucursal, fecha, importe, ventas);
+    }
+}
@@ -7,33 +7,72 @@ import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.data.domain.Pageable;
 
-import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.Collectors;
 
 /**
  * Repositorio encargado de la persistencia y consulta avanzada
  * de ventas, incluyendo filtros dinámicos y consultas agregadas.
  */
-public interface VentaRepository extends JpaRepository<Venta, Long> {
+public interface VentaRepository extends JpaRepository<Venta, Long>, VentaRepositoryCustom {
 
     boolean existsByDetalles_Producto_Id(Long productoId);
 
     boolean existsBySucursal_Id(Long idSucursal);
 
-    @Query("SELECT v FROM Venta v JOIN FETCH v.sucursal WHERE " +
+    // Primera consulta de la paginación por cursor: solo los IDs de la página, ordenados por (fecha, id).
+    // La fecha se filtra como rango semiabierto [desde, hasta) para que pueda usar los índices sobre ventas.fecha
+    @Query("SELECT v.id FROM Venta v WHERE " +
             "(:soloActivas = false OR v.activa = true) AND " +
             "(:idSucursal IS NULL OR v.sucursal.id = :idSucursal) AND " +
-            "(:fecha IS NULL OR CAST(v.fecha AS LocalDate) = :fecha)")
-    List<Venta> findByFiltrosAvanzados(@Param("idSucursal") Long idSucursal,
-                                       @Param("fecha") LocalDate fecha,
-                                       @Param("soloActivas") boolean soloActivas);
+            "(:desde IS NULL OR (v.fecha >= :desde AND v.fecha < :hasta)) AND " +
+            "(:cursorFecha IS NULL OR v.fecha < :cursorFecha OR (v.fecha = :cursorFecha AND v.id < :cursorId)) " +
+            "ORDER BY v.fecha DESC, v.id DESC")
+    List<Long> findIdsByFiltrosAvanzados(@Param("idSucursal") Long idSucursal,
+                                         @Param("desde") LocalDateTime desde,
+                                         @Param("hasta") LocalDateTime hasta,
+                                         @Param("soloActivas") boolean soloActivas,
+                                         @Param("cursorFecha") LocalDateTime cursorFecha,
+                                         @Param("cursorId") Long cursorId,
+                                         Pageable pageable);
+
+    // Segunda consulta: carga las ventas de la página con sucursal, detalles y productos en un solo JOIN
+    @Query("SELECT DISTINCT v FROM Venta v JOIN FETCH v.sucursal " +
+            "LEFT JOIN FETCH v.detalles d LEFT JOIN FETCH d.producto " +
+            "WHERE v.id IN :ids")
+    List<Venta> findConDetallesByIdIn(@Param("ids") Collection<Long> ids);
 
     @Query("SELECT new com.example.supermercado_ventas_api.dtos.ProductoTopVentasDTO(d.producto.nombreProducto, SUM(d.cantidad)) " +
-            "FROM VentaDetalle d " +
+            "FROM VentaDetalle d WHERE d.venta.activa = true " +
             "GROUP BY d.producto.id, d.producto.nombreProducto " +
             "ORDER BY SUM(d.cantidad) DESC")
     List<ProductoTopVentasDTO> findProductoMasVendido(Pageable pageable);
 
-    @Query("SELECT v.fecha, SUM(v.totalVenta) FROM Venta v WHERE v.activa = true GROUP BY v.fecha ORDER BY v.fecha ASC")
-    List<Object[]> findVentasDiarias();
+    // Devuelve [idSucursal, idProducto, nombreProducto, día, cantidad] de las ventas activas desde la fecha indicada
+    @Query("SELECT v.sucursal.id, d.producto.id, d.producto.nombreProducto, CAST(v.fecha AS LocalDate), SUM(d.cantidad) " +
+            "FROM VentaDetalle d JOIN d.venta v " +
+            "WHERE v.activa = true AND v.fecha >= :desde " +
+            "GROUP BY v.sucursal.id, d.producto.id, d.producto.nombreProducto, CAST(v.fecha AS LocalDate)")
+    List<Object[]> findCantidadesVendidasPorDiaDesde(@Param("desde") LocalDateTime desde);
+
+    @Query("SELECT v FROM Venta v JOIN FETCH v.sucursal " +
+            "LEFT JOIN FETCH v.detalles d LEFT JOIN FETCH d.producto " +
+            "WHERE v.claveIdempotencia = :clave")
+    Optional<Venta> findConDetallesByClaveIdempotencia(@Param("clave") String clave);
+
+    @Query("SELECT v.claveIdempotencia, v.id FROM Venta v WHERE v.claveIdempotencia IN :claves")
+    List<Object[]> findClavesIdempotenciaIn(@Param("claves") Collection<String> claves);
+
+    // IDs de las ventas ya registradas con alguna de las claves, indexados por clave de idempotencia
+    default Map<String, Long> findIdsByClaveIdempotencia(Collection<String> claves) {
+        if (claves.isEmpty()) {
+            return Map.of();
+        }
+        return findClavesIdempotenciaIn(claves).stream()
+                .collect(Collectors.toMap(fila -> (String) fila[0], fila -> (Long) fila[1]));
+    }
 }
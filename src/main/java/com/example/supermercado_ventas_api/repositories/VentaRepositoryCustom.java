@@ -0,0 +1,23 @@
+package com.example.supermercado_ventas_api.repositories;
+
+import com.example.supermercado_ventas_api.dtos.VentaExportacionDTO;
+
+import java.time.LocalDateTime;
+import java.util.function.Consumer;
+
+/**
+ * Lecturas de ventas que se resuelven directamente con JDBC, sin cargar entidades.
+ */
+public interface VentaRepositoryCustom {
+
+    /**
+     * Recorre los productos vendidos en el rango [desde, hasta), ordenados por fecha de venta,
+     * y entrega cada fila al consumidor a medida que se lee, sin acumularlas.
+     *
+     * @param desde      inicio del rango (incluido), o null para no acotarlo
+     * @param hasta      fin del rango (excluido), o null para no acotarlo
+     * @param idSucursal sucursal a exportar, o null para todas
+     */
+    void recorrerParaExportar(LocalDateTime desde, LocalDateTime hasta, Long idSucursal,
+                              Consumer<VentaExportacionDTO> consumidor);
+}
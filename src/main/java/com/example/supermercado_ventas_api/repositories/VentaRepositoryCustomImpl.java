@@ -0,0 +1,89 @@
+package com.example.supermercado_ventas_api.repositories;
+
+import com.example.supermercado_ventas_api.dtos.VentaExportacionDTO;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.JdbcUtils;
+import org.springframework.jdbc.support.MetaDataAccessException;
+
+import javax.sql.DataSource;
+import java.math.BigDecimal;
+import java.sql.DatabaseMetaData;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Implementación JDBC de {@link VentaRepositoryCustom}. Lee con un cursor de solo avance y un
+ * fetch size acotado, de modo que el driver nunca retiene más de un bloque de filas.
+ * Connector/J ignora el fetch size salvo con {@link Integer#MIN_VALUE}, que activa su modo
+ * streaming fila a fila; con MySQL se usa ese valor.
+ */
+public class VentaRepositoryCustomImpl implements VentaRepositoryCustom {
+
+    private static final String SQL_EXPORTAR =
+            "SELECT v.id, v.fecha, v.sucursal_id, s.nombre_sucursal, v.activa, v.total_venta, " +
+                    "d.producto_id, p.nombre_producto, p.categoria, d.cantidad, p.precio_producto " +
+                    "FROM ventas v " +
+                    "JOIN sucursales s ON s.id = v.sucursal_id " +
+                    "JOIN venta_detalles d ON d.venta_id = v.id " +
+                    "JOIN productos p ON p.id = d.producto_id " +
+                    "WHERE 1 = 1%s ORDER BY v.fecha, v.id";
+
+    private final JdbcTemplate cursor;
+
+    public VentaRepositoryCustomImpl(JdbcTemplate jdbcTemplate,
+                                     @Value("${ventas.exportacion.fetch-size:1000}") int fetchSize) {
+        DataSource dataSource = jdbcTemplate.getDataSource();
+        // Plantilla propia: el fetch size solo debe aplicarse a la exportación
+        this.cursor = new JdbcTemplate(dataSource);
+        this.cursor.setFetchSize(esMySql(dataSource) ? Integer.MIN_VALUE : fetchSize);
+    }
+
+    @Override
+    public void recorrerParaExportar(LocalDateTime desde, LocalDateTime hasta, Long idSucursal,
+                                     Consumer<VentaExportacionDTO> consumidor) {
+        StringBuilder filtros = new StringBuilder();
+        List<Object> parametros = new ArrayList<>();
+        if (desde != null) {
+            filtros.append(" AND v.fecha >= ?");
+            parametros.add(Timestamp.valueOf(desde));
+        }
+        if (hasta != null) {
+            filtros.append(" AND v.fecha < ?");
+            parametros.add(Timestamp.valueOf(hasta));
+        }
+        if (idSucursal != null) {
+            filtros.append(" AND v.sucursal_id = ?");
+            parametros.add(idSucursal);
+        }
+
+        cursor.query(SQL_EXPORTAR.formatted(filtros), rs -> {
+            int cantidad = rs.getInt(10);
+            BigDecimal precio = rs.getBigDecimal(11);
+            consumidor.accept(new VentaExportacionDTO(
+                    rs.getLong(1),
+                    rs.getTimestamp(2).toLocalDateTime(),
+                    rs.getLong(3),
+                    rs.getString(4),
+                    rs.getBoolean(5),
+                    rs.getBigDecimal(6),
+                    rs.getLong(7),
+                    rs.getString(8),
+                    rs.getString(9),
+                    cantidad,
+                    precio,
+                    precio.multiply(BigDecimal.valueOf(cantidad))));
+        }, parametros.toArray());
+    }
+
+    private static boolean esMySql(DataSource dataSource) {
+        try {
+            return "MySQL".equals(JdbcUtils.extractDatabaseMetaData(dataSource, DatabaseMetaData::getDatabaseProductName));
+        } catch (MetaDataAccessException e) {
+            return false;
+        }
+    }
+}
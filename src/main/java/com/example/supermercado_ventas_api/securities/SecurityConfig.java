@@ -1,8 +1,10 @@
 package com.example.supermercado_ventas_api.securities;
 
+import com.example.supermercado_ventas_api.configs.JWTAuthenticationCache;
 import com.example.supermercado_ventas_api.configs.JWTFilter;
 import com.example.supermercado_ventas_api.configs.JWTUtils;
 import com.example.supermercado_ventas_api.repositories.UsuarioRepository;
+import io.micrometer.core.instrument.MeterRegistry;
 import lombok.RequiredArgsConstructor;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -34,6 +36,8 @@ public class SecurityConfig {
     private final CustomAuthenticationEntryPoint customAuthenticationEntryPoint;
     private final CustomAccessDeniedHandler customAccessDeniedHandler;
     private final UsuarioRepository usuarioRepository;
+    private final JWTAuthenticationCache jwtAuthenticationCache;
+    private final MeterRegistry meterRegistry;
 
     @Bean
     public SecurityFilterChain filterChain(HttpSecurity http) throws Exception {
@@ -58,9 +62,19 @@ public class SecurityConfig {
                                 "/swagger-ui.html",
                                 "/webjars/**",
                                 "/swagger-resources/**",
-                                "/api/auth/**"
+                                "/api/auth/**",
+                                "/actuator/health"
                         ).permitAll()
 
+                        // Métricas (Prometheus) y demás endpoints de Actuator, solo ADMIN
+                        .requestMatchers("/actuator/**").hasAuthority("ADMIN")
+
+                        // Flujos SSE: cada conexión ocupa recursos del servidor durante minutos, requieren rol
+                        .requestMatchers(HttpMethod.GET, "/api/ventas/stream", "/api/inventarios/alertas")
+                        .hasAnyAuthority("ADMIN", "CAJERO")
+                        // La exportación descarga las ventas de todas las sucursales: solo ADMIN
+                        .requestMatchers(HttpMethod.GET, "/api/ventas/export").hasAuthority("ADMIN")
+
                         // Consultas (GET) permitidas para cualquier usuario autenticado
                         .requestMatchers(HttpMethod.GET, "/api/**").permitAll()
 
@@ -81,7 +95,7 @@ public class SecurityConfig {
                         .anyRequest().authenticated()
                 )
                 // 6. Añadir el filtro JWT antes del filtro de autenticación de Spring
-                .addFilterBefore(new JWTFilter(jwtUtils, usuarioRepository), UsernamePasswordAuthenticationFilter.class);
+                .addFilterBefore(new JWTFilter(jwtUtils, usuarioRepository, jwtAuthenticationCache, meterRegistry), UsernamePasswordAuthenticationFilter.class);
 
         return http.build();
     }
@@ -95,7 +109,8 @@ public class SecurityConfig {
         CorsConfiguration configuration = new CorsConfiguration();
         configuration.setAllowedOrigins(Arrays.asList("http://localhost:5173", "http://localhost")); // URL de tu React
         configuration.setAllowedMethods(Arrays.asList("GET", "POST", "PUT", "DELETE", "OPTIONS"));
-        configuration.setAllowedHeaders(Arrays.asList("Authorization", "Content-Type"));
+        configuration.setAllowedHeaders(Arrays.asList("Authorization", "Content-Type", "Idempotency-Key", "If-None-Match"));
+        configuration.setExposedHeaders(List.of("Idempotent-Replayed", "ETag"));
         UrlBasedCorsConfigurationSource source = new UrlBasedCorsConfigurationSource();
         source.registerCorsConfiguration("/**", configuration);
         return source;
@@ -0,0 +1,295 @@
+package com.example.supermercado_ventas_api.services;
+
+import com.example.supermercado_ventas_api.dtos.AlertaStockDTO;
+import com.example.supermercado_ventas_api.dtos.InventarioResponseDTO;
+import com.example.supermercado_ventas_api.dtos.VentaResponseDTO;
+import com.example.supermercado_ventas_api.events.InventarioActualizadoEvent;
+import com.example.supermercado_ventas_api.events.InventarioEliminadoEvent;
+import com.example.supermercado_ventas_api.events.VentaAnuladaEvent;
+import com.example.supermercado_ventas_api.events.VentaRegistradaEvent;
+import com.example.supermercado_ventas_api.repositories.InventarioRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Collectors;
+
+/**
+ * Motor de alertas de stock bajo. Mantiene en memoria la cantidad de cada inventario con umbral
+ * de reposición y la refresca tras cada venta, anulación o ajuste ya confirmados, fuera de la
+ * transacción de venta. Los listeners de distintas peticiones no se ejecutan en el orden de sus
+ * commits, así que no se aplican variaciones: se relee la cantidad de los inventarios vigilados
+ * afectados junto con su versión (que toda escritura incrementa) y solo se acepta si es más nueva
+ * que la que ya se tiene. Al cruzar el umbral a la baja se encola una alerta (una sola hasta que el
+ * stock vuelve a superarlo) en una cola acotada que un hilo propio reparte a los suscriptores SSE.
+ * El estado se reconstruye desde la BD al arrancar.
+ */
+@Slf4j
+@Service
+public class AlertaStockService {
+
+    private final InventarioRepository inventarioRepository;
+    private final BlockingQueue<AlertaStockDTO> pendientes;
+    private final long timeoutSse;
+
+    private final Map<Clave, Vigilancia> vigilados = new ConcurrentHashMap<>();
+    private final Set<SseEmitter> suscriptores = ConcurrentHashMap.newKeySet();
+    private final LongAdder emitidas = new LongAdder();
+    private final LongAdder descartadas = new LongAdder();
+
+    private Thread despachador;
+
+    private record Clave(Long idSucursal, Long idProducto) {
+    }
+
+    // Estado vigilado de un inventario; "alertado" evita repetir la alerta mientras siga bajo el umbral
+    private static final class Vigilancia {
+        private InventarioResponseDTO inventario;
+        private int cantidad;
+        // Versión de la fila con la que se leyó la cantidad; null si aún no se conoce
+        private Long version;
+        private boolean alertado;
+        private LocalDateTime fechaAlerta;
+
+        Vigilancia(InventarioResponseDTO inventario) {
+            this.inventario = inventario;
+            this.cantidad = inventario.getCantidad();
+            this.alertado = cantidad <= inventario.getStockMinimo();
+            this.fechaAlerta = LocalDateTime.now();
+        }
+
+        // Una lectura más antigua que la ya aplicada (listener adelantado por otro) se ignora
+        synchronized AlertaStockDTO actualizar(int nuevaCantidad, long nuevaVersion) {
+            if (version != null && nuevaVersion <= version) {
+                return null;
+            }
+            cantidad = nuevaCantidad;
+            version = nuevaVersion;
+            return evaluar();
+        }
+
+        // Cambia el umbral y los datos descriptivos; la cantidad solo llega releída con su versión
+        synchronized AlertaStockDTO reemplazar(InventarioResponseDTO nuevo) {
+            inventario = nuevo;
+            return evaluar();
+        }
+
+        synchronized AlertaStockDTO activa() {
+            return alertado ? alerta() : null;
+        }
+
+        Long idInventario() {
+            return inventario.getId();
+        }
+
+        private AlertaStockDTO evaluar() {
+            boolean bajoUmbral = cantidad <= inventario.getStockMinimo();
+            if (bajoUmbral && !alertado) {
+                alertado = true;
+                fechaAlerta = LocalDateTime.now();
+                return alerta();
+            }
+            alertado = bajoUmbral;
+            return null;
+        }
+
+        private AlertaStockDTO alerta() {
+            return new AlertaStockDTO(inventario.getId(), inventario.getIdSucursal(), inventario.getNombreSucursal(),
+                    inventario.getIdProducto(), inventario.getNombreProducto(), cantidad, inventario.getStockMinimo(),
+                    fechaAlerta);
+        }
+    }
+
+    public AlertaStockService(InventarioRepository inventarioRepository,
+                              @Value("${inventario.alertas.capacidad-cola:1000}") int capacidadCola,
+                              @Value("${inventario.alertas.timeout-sse-minutos:30}") long timeoutSseMinutos) {
+        this.inventarioRepository = inventarioRepository;
+        this.pendientes = new ArrayBlockingQueue<>(capacidadCola);
+        this.timeoutSse = Duration.ofMinutes(timeoutSseMinutos).toMillis();
+    }
+
+    @PostConstruct
+    void iniciar() {
+        despachador = Thread.ofPlatform().daemon().name("alertas-stock").start(this::despachar);
+    }
+
+    /**
+     * Detiene el despachador esperando a que termine el envío en curso y reparte las alertas
+     * que quedaban en la cola antes de cerrar las conexiones.
+     */
+    @PreDestroy
+    void detener() throws InterruptedException {
+        despachador.interrupt();
+        despachador.join(Duration.ofSeconds(10));
+        List<AlertaStockDTO> restantes = new ArrayList<>();
+        pendientes.drainTo(restantes);
+        restantes.forEach(this::repartir);
+        suscriptores.forEach(SseEmitter::complete);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void reconstruir() {
+        vigilados.clear();
+        for (InventarioResponseDTO inventario : inventarioRepository.findConStockMinimo()) {
+            vigilados.put(new Clave(inventario.getIdSucursal(), inventario.getIdProducto()), new Vigilancia(inventario));
+        }
+    }
+
+    @TransactionalEventListener
+    public void onVentaRegistrada(VentaRegistradaEvent event) {
+        refrescar(vigiladosDe(event.idSucursal(), event.venta()));
+    }
+
+    @TransactionalEventListener
+    public void onVentaAnulada(VentaAnuladaEvent event) {
+        refrescar(vigiladosDe(event.idSucursal(), event.venta()));
+    }
+
+    @TransactionalEventListener
+    public void onInventarioActualizado(InventarioActualizadoEvent event) {
+        InventarioResponseDTO inventario = event.inventario();
+        Clave clave = new Clave(inventario.getIdSucursal(), inventario.getIdProducto());
+        if (inventario.getStockMinimo() == null) {
+            vigilados.remove(clave);
+            return;
+        }
+
+        // Un umbral recién definido con el stock ya por debajo avisa de inmediato
+        Vigilancia nueva = new Vigilancia(inventario);
+        Vigilancia existente = vigilados.putIfAbsent(clave, nueva);
+        encolar(existente == null ? nueva.activa() : existente.reemplazar(inventario));
+        refrescar(List.of(existente == null ? nueva : existente));
+    }
+
+    @TransactionalEventListener
+    public void onInventarioEliminado(InventarioEliminadoEvent event) {
+        vigilados.values().removeIf(v -> Objects.equals(v.idInventario(), event.idInventario()));
+    }
+
+    // Inventarios que están ahora mismo en su umbral de reposición o por debajo
+    public List<AlertaStockDTO> alertasActivas() {
+        return vigilados.values().stream()
+                .map(Vigilancia::activa)
+                .filter(Objects::nonNull)
+                .toList();
+    }
+
+    /**
+     * Registra un suscriptor SSE. Recibe las alertas activas y después cada alerta nueva como
+     * evento {@code alerta-stock}. Se registra antes de leer las alertas activas: una alerta
+     * emitida mientras tanto puede llegar repetida o antes que el estado inicial, pero no se pierde.
+     */
+    public SseEmitter suscribir() {
+        SseEmitter emitter = new SseEmitter(timeoutSse);
+        emitter.onCompletion(() -> suscriptores.remove(emitter));
+        emitter.onTimeout(() -> suscriptores.remove(emitter));
+        emitter.onError(e -> suscriptores.remove(emitter));
+        suscriptores.add(emitter);
+
+        for (AlertaStockDTO alerta : alertasActivas()) {
+            if (!enviar(emitter, alerta)) {
+                suscriptores.remove(emitter);
+                return emitter;
+            }
+        }
+        return emitter;
+    }
+
+    private List<Vigilancia> vigiladosDe(Long idSucursal, VentaResponseDTO venta) {
+        return venta.detalles().stream()
+                .map(detalle -> vigilados.get(new Clave(idSucursal, detalle.idProducto())))
+                .filter(Objects::nonNull)
+                .distinct()
+                .toList();
+    }
+
+    // Relee cantidad y versión de los inventarios vigilados; sin ninguno vigilado no hay consulta
+    private void refrescar(List<Vigilancia> afectadas) {
+        if (afectadas.isEmpty()) {
+            return;
+        }
+        Map<Long, Vigilancia> porId = afectadas.stream()
+                .collect(Collectors.toMap(Vigilancia::idInventario, v -> v, (a, b) -> a));
+        for (Object[] fila : inventarioRepository.findCantidadYVersionByIdIn(porId.keySet())) {
+            Vigilancia vigilancia = porId.get((Long) fila[0]);
+            encolar(vigilancia.actualizar(((Number) fila[1]).intValue(), ((Number) fila[2]).longValue()));
+        }
+    }
+
+    // Nunca bloquea al hilo que confirmó la venta: si la cola está llena se descarta la alerta más antigua
+    private void encolar(AlertaStockDTO alerta) {
+        if (alerta == null) {
+            return;
+        }
+        emitidas.increment();
+        while (!pendientes.offer(alerta)) {
+            if (pendientes.poll() != null) {
+                descartadas.increment();
+            }
+        }
+    }
+
+    private void despachar() {
+        while (!Thread.currentThread().isInterrupted()) {
+            try {
+                repartir(pendientes.take());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (RuntimeException e) {
+                log.warn("Error al repartir una alerta de stock", e);
+            }
+        }
+    }
+
+    private void repartir(AlertaStockDTO alerta) {
+        suscriptores.removeIf(emitter -> !enviar(emitter, alerta));
+    }
+
+    private boolean enviar(SseEmitter emitter, AlertaStockDTO alerta) {
+        try {
+            emitter.send(SseEmitter.event().name("alerta-stock").data(alerta));
+            return true;
+        } catch (IOException | IllegalStateException e) {
+            emitter.completeWithError(e);
+            return false;
+        }
+    }
+
+    public long getEmitidas() {
+        return emitidas.sum();
+    }
+
+    public long getDescartadas() {
+        return descartadas.sum();
+    }
+
+    public int getPendientes() {
+        return pendientes.size();
+    }
+
+    public int getSuscriptores() {
+        return suscriptores.size();
+    }
+
+    public int getVigilados() {
+        return vigilados.size();
+    }
+}
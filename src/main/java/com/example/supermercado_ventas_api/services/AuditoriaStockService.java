@@ -0,0 +1,253 @@
+package com.example.supermercado_ventas_api.services;
+
+import com.example.supermercado_ventas_api.dtos.DetalleVentaResponseDTO;
+import com.example.supermercado_ventas_api.events.AjusteStockEvent;
+import com.example.supermercado_ventas_api.events.VentaAnuladaEvent;
+import com.example.supermercado_ventas_api.events.VentaRegistradaEvent;
+import com.example.supermercado_ventas_api.models.MovimientoStock;
+import com.example.supermercado_ventas_api.models.TipoMovimiento;
+import com.example.supermercado_ventas_api.repositories.MovimientoStockRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.jctools.queues.MessagePassingQueue;
+import org.jctools.queues.MpscArrayQueue;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.RecoverableDataAccessException;
+import org.springframework.dao.TransientDataAccessException;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Libro de auditoría de movimientos de stock (ventas, anulaciones, entradas y ajustes), escrito
+ * fuera de la transacción de negocio para no alargar el cobro. Cada cambio confirmado se deja en
+ * un buffer circular sin bloqueos (varios productores, un consumidor) que un hilo propio vacía
+ * en lotes JDBC; al cerrar la aplicación se escribe lo pendiente.
+ * <p>
+ * Entrega al menos una vez tras el commit mientras el proceso termine de forma ordenada: lo que
+ * está en memoria se pierde si muere de golpe. Con el buffer lleno el movimiento pasa a una cola
+ * de desbordamiento sin límite que el escritor también vacía; el productor nunca espera, porque los
+ * listeners AFTER_COMMIT se ejecutan con la conexión de la petición aún tomada y productores
+ * bloqueados podrían agotar el pool que necesita el escritor. Un lote se reintenta mientras el
+ * error sea transitorio; si es permanente se divide para aislar la fila inválida, que se deja en
+ * el log de errores y en el contador de rechazados.
+ */
+@Slf4j
+@Service
+public class AuditoriaStockService {
+
+    private static final long ESPERA_REINTENTO_MAXIMA_MS = 5_000;
+    // Longitud de la columna movimientos_stock.usuario; Usuario.username no tiene límite
+    private static final int LONGITUD_USUARIO = 100;
+
+    private final MovimientoStockRepository movimientoStockRepository;
+    private final MessagePassingQueue<MovimientoStock> buffer;
+    private final int tamanioLote;
+    private final long intervaloNanos;
+    private final Queue<MovimientoStock> desbordamiento = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger tamanioDesbordamiento = new AtomicInteger();
+
+    private final LongAdder encolados = new LongAdder();
+    private final LongAdder escritos = new LongAdder();
+    private final LongAdder desbordados = new LongAdder();
+    private final LongAdder lotesFallidos = new LongAdder();
+    private final LongAdder rechazados = new LongAdder();
+
+    private volatile boolean activo = true;
+    private Thread escritor;
+
+    public AuditoriaStockService(MovimientoStockRepository movimientoStockRepository,
+                                 @Value("${auditoria.stock.capacidad-buffer:16384}") int capacidadBuffer,
+                                 @Value("${auditoria.stock.tamanio-lote:500}") int tamanioLote,
+                                 @Value("${auditoria.stock.intervalo-ms:50}") long intervaloMs) {
+        this.movimientoStockRepository = movimientoStockRepository;
+        this.buffer = new MpscArrayQueue<>(capacidadBuffer);
+        this.tamanioLote = tamanioLote;
+        this.intervaloNanos = Duration.ofMillis(intervaloMs).toNanos();
+    }
+
+    @PostConstruct
+    void iniciar() {
+        escritor = Thread.ofPlatform().daemon().name("auditoria-stock").start(this::escribir);
+    }
+
+    // Se destruye antes que el repositorio y el DataSource, de los que depende
+    @PreDestroy
+    void detener() throws InterruptedException {
+        activo = false;
+        LockSupport.unpark(escritor);
+        escritor.join(Duration.ofSeconds(10));
+    }
+
+    @TransactionalEventListener
+    public void onVentaRegistrada(VentaRegistradaEvent event) {
+        for (DetalleVentaResponseDTO detalle : event.venta().detalles()) {
+            encolar(movimiento(TipoMovimiento.VENTA, event.idSucursal(), detalle.idProducto(), -detalle.cantidad(),
+                    event.venta().id()));
+        }
+    }
+
+    @TransactionalEventListener
+    public void onVentaAnulada(VentaAnuladaEvent event) {
+        for (DetalleVentaResponseDTO detalle : event.venta().detalles()) {
+            encolar(movimiento(TipoMovimiento.ANULACION, event.idSucursal(), detalle.idProducto(), detalle.cantidad(),
+                    event.venta().id()));
+        }
+    }
+
+    @TransactionalEventListener
+    public void onAjusteStock(AjusteStockEvent event) {
+        encolar(movimiento(event.tipo(), event.idSucursal(), event.idProducto(), event.variacion(), null));
+    }
+
+    /**
+     * Escribe todo lo pendiente en lotes. Solo puede llamarlo el consumidor del buffer: el hilo
+     * escritor o, en los tests, el propio test sin el hilo arrancado.
+     *
+     * @return número de movimientos escritos
+     */
+    public int vaciar() {
+        List<MovimientoStock> lote = new ArrayList<>(tamanioLote);
+        int total = 0;
+        while (buffer.drain(lote::add, tamanioLote) > 0 || drenarDesbordamiento(lote) > 0) {
+            guardar(lote);
+            total += lote.size();
+            lote.clear();
+        }
+        return total;
+    }
+
+    private void escribir() {
+        while (activo) {
+            if (vaciar() == 0) {
+                LockSupport.parkNanos(intervaloNanos);
+            }
+        }
+        // Cierre ordenado: lo encolado por las últimas transacciones también se escribe
+        vaciar();
+    }
+
+    private int drenarDesbordamiento(List<MovimientoStock> lote) {
+        int drenados = 0;
+        MovimientoStock movimiento;
+        while (drenados < tamanioLote && (movimiento = desbordamiento.poll()) != null) {
+            tamanioDesbordamiento.decrementAndGet();
+            lote.add(movimiento);
+            drenados++;
+        }
+        return drenados;
+    }
+
+    // Reintenta con espera creciente los errores transitorios; solo se abandona durante el cierre
+    private void guardar(List<MovimientoStock> lote) {
+        long esperaMs = 100;
+        while (true) {
+            try {
+                movimientoStockRepository.insertarLote(lote);
+                escritos.add(lote.size());
+                return;
+            } catch (RuntimeException e) {
+                lotesFallidos.increment();
+                if (!reintentable(e)) {
+                    aislar(lote, e);
+                    return;
+                }
+                if (!activo) {
+                    log.error("No se pudieron guardar {} movimientos de stock durante el cierre", lote.size(), e);
+                    return;
+                }
+                log.warn("Error al guardar {} movimientos de stock; se reintenta en {} ms", lote.size(), esperaMs, e);
+                LockSupport.parkNanos(Duration.ofMillis(esperaMs).toNanos());
+                esperaMs = Math.min(esperaMs * 2, ESPERA_REINTENTO_MAXIMA_MS);
+            }
+        }
+    }
+
+    // Error permanente (dato inválido): repetir el mismo lote fallaría siempre y bloquearía al escritor
+    private void aislar(List<MovimientoStock> lote, RuntimeException e) {
+        if (lote.size() == 1) {
+            rechazados.increment();
+            log.error("Movimiento de stock rechazado por la BD, no auditado: {}", lote.getFirst(), e);
+            return;
+        }
+        int mitad = lote.size() / 2;
+        guardar(new ArrayList<>(lote.subList(0, mitad)));
+        guardar(new ArrayList<>(lote.subList(mitad, lote.size())));
+    }
+
+    // Transitorios y caídas de conexión se reintentan; lo demás se considera un dato inválido
+    private static boolean reintentable(RuntimeException e) {
+        return e instanceof TransientDataAccessException
+                || e instanceof RecoverableDataAccessException
+                || e instanceof DataAccessResourceFailureException;
+    }
+
+    private void encolar(MovimientoStock movimiento) {
+        encolados.increment();
+        if (buffer.offer(movimiento)) {
+            return;
+        }
+        // Buffer lleno: la BD va por detrás. No se espera, esperar retendría la conexión de la petición
+        desbordados.increment();
+        tamanioDesbordamiento.incrementAndGet();
+        desbordamiento.add(movimiento);
+    }
+
+    private static MovimientoStock movimiento(TipoMovimiento tipo, Long idSucursal, Long idProducto, int cantidad, Long idVenta) {
+        Authentication autenticacion = SecurityContextHolder.getContext().getAuthentication();
+        return MovimientoStock.builder()
+                .tipo(tipo)
+                .idSucursal(idSucursal)
+                .idProducto(idProducto)
+                .cantidad(cantidad)
+                .idVenta(idVenta)
+                .usuario(autenticacion != null ? truncar(autenticacion.getName()) : null)
+                .fecha(LocalDateTime.now())
+                .build();
+    }
+
+    private static String truncar(String usuario) {
+        return usuario.length() > LONGITUD_USUARIO ? usuario.substring(0, LONGITUD_USUARIO) : usuario;
+    }
+
+    public long getEncolados() {
+        return encolados.sum();
+    }
+
+    public long getEscritos() {
+        return escritos.sum();
+    }
+
+    public int getPendientes() {
+        return buffer.size();
+    }
+
+    public long getDesbordados() {
+        return desbordados.sum();
+    }
+
+    public int getPendientesDesbordamiento() {
+        return tamanioDesbordamiento.get();
+    }
+
+    public long getLotesFallidos() {
+        return lotesFallidos.sum();
+    }
+
+    public long getRechazados() {
+        return rechazados.sum();
+    }
+}
@@ -0,0 +1,154 @@
+package com.example.supermercado_ventas_api.services;
+
+import com.example.supermercado_ventas_api.dtos.ProductoResponseDTO;
+import com.example.supermercado_ventas_api.models.Producto;
+import com.example.supermercado_ventas_api.repositories.ProductoRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Caché de lectura del catálogo de productos, compartida por los endpoints de productos y el
+ * registro de ventas. Los productos se guardan desacoplados del contexto de persistencia y no
+ * deben modificarse: las escrituras pasan por {@link ProductoService}, que invalida la caché
+ * tras el commit. El TTL acota el tiempo que un cambio hecho fuera de la API puede tardar en verse.
+ * <p>
+ * Las cargas no usan {@code Cache.get(clave, función)}: esa carga es atómica y se ejecuta dentro de
+ * un bloque synchronized, que en Java 21 fija el hilo virtual a su portador durante toda la consulta
+ * JDBC. A cambio, dos fallos simultáneos de la misma clave pueden consultar la BD dos veces.
+ */
+@Component
+public class CatalogoProductosCache {
+
+    private static final String TODOS = "todos";
+
+    private final ProductoRepository productoRepository;
+    private final Cache<Long, Producto> porId;
+    private final Cache<String, List<ProductoResponseDTO>> listado;
+    // Se incrementa en cada invalidación; permite detectar lecturas de la BD que se solapan con un cambio
+    private final AtomicLong generacion = new AtomicLong();
+
+    public CatalogoProductosCache(ProductoRepository productoRepository,
+                                  @Value("${productos.cache.max-entradas:5000}") long maxEntradas,
+                                  @Value("${productos.cache.ttl-minutos:10}") long ttlMinutos) {
+        this.productoRepository = productoRepository;
+        this.porId = Caffeine.newBuilder()
+                .maximumSize(maxEntradas)
+                .expireAfterWrite(Duration.ofMinutes(ttlMinutos))
+                .recordStats()
+                .build();
+        this.listado = Caffeine.newBuilder()
+                .maximumSize(1)
+                .expireAfterWrite(Duration.ofMinutes(ttlMinutos))
+                .recordStats()
+                .build();
+    }
+
+    // El listado se guarda ya convertido a DTO: cada respuesta solo serializa, sin volver a mapear
+    public List<ProductoResponseDTO> listar() {
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            // Dentro de una transacción se lee de la BD para ver sus propios cambios sin cachearlos
+            return cargarListado();
+        }
+        List<ProductoResponseDTO> productos = listado.getIfPresent(TODOS);
+        if (productos == null) {
+            long lectura = generacion.get();
+            productos = cargarListado();
+            guardar(listado, Map.of(TODOS, productos), lectura);
+        }
+        return productos;
+    }
+
+    private List<ProductoResponseDTO> cargarListado() {
+        return productoRepository.findAll().stream().map(ProductoResponseDTO::desde).toList();
+    }
+
+    public Optional<Producto> buscar(Long id) {
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            return productoRepository.findById(id);
+        }
+        Producto producto = porId.getIfPresent(id);
+        if (producto == null) {
+            long lectura = generacion.get();
+            Optional<Producto> cargado = productoRepository.findById(id);
+            // Si el producto no existe no se cachea nada
+            cargado.ifPresent(p -> guardar(porId, Map.of(id, p), lectura));
+            return cargado;
+        }
+        return Optional.of(producto);
+    }
+
+    // Productos existentes entre los IDs indicados; los que faltan en caché se cargan en una sola consulta
+    public Map<Long, Producto> buscarPorIds(Collection<Long> ids) {
+        Map<Long, Producto> productos = new HashMap<>(porId.getAllPresent(ids));
+        Set<Long> faltantes = new HashSet<>(ids);
+        faltantes.removeAll(productos.keySet());
+        if (!faltantes.isEmpty()) {
+            long lectura = generacion.get();
+            Map<Long, Producto> cargados = productoRepository.findAllById(faltantes).stream()
+                    .collect(Collectors.toMap(Producto::getId, Function.identity()));
+            guardar(porId, cargados, lectura);
+            productos.putAll(cargados);
+        }
+        return productos;
+    }
+
+    // Guarda lo leído de la BD y lo descarta si mientras tanto hubo una invalidación, para no dejar en
+    // caché una versión anterior al cambio. Se comprueba después de guardar: si la invalidación llega
+    // más tarde, su propio invalidate ya elimina lo guardado
+    private <K, V> void guardar(Cache<K, V> cache, Map<K, V> leidos, long generacionLectura) {
+        cache.putAll(leidos);
+        if (generacion.get() != generacionLectura) {
+            cache.invalidateAll(leidos.keySet());
+        }
+    }
+
+    // Descarta el producto y el listado cuando la transacción en curso se confirma (o ya, si no hay ninguna)
+    public void invalidar(Long id) {
+        Runnable invalidacion = () -> {
+            generacion.incrementAndGet();
+            if (id != null) {
+                porId.invalidate(id);
+            }
+            listado.invalidateAll();
+        };
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    invalidacion.run();
+                }
+            });
+        } else {
+            invalidacion.run();
+        }
+    }
+
+    public long getAciertos() {
+        return porId.stats().hitCount() + listado.stats().hitCount();
+    }
+
+    public long getFallos() {
+        return porId.stats().missCount() + listado.stats().missCount();
+    }
+
+    public long getTamanio() {
+        return porId.estimatedSize();
+    }
+}
@@ -0,0 +1,164 @@
+package com.example.supermercado_ventas_api.services;
+
+import com.example.supermercado_ventas_api.exceptions.ServicioSaturadoException;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Reparte mensajes a varios suscriptores SSE desde un único publicador. Cada suscriptor tiene su
+ * propio buffer acotado y su propia tarea de escritura, de modo que publicar nunca bloquea y un
+ * cliente lento no retrasa a los demás. Cuando el buffer de un suscriptor se llena se aplica la
+ * {@link Politica} configurada. Cada mensaje lleva un ID de secuencia global en el campo
+ * {@code id} del evento, con el que el cliente puede detectar huecos. El número de suscriptores
+ * simultáneos está acotado: por encima del máximo la suscripción se rechaza con
+ * {@link ServicioSaturadoException}.
+ */
+public class DifusorSse<T> {
+
+    /**
+     * Qué hacer con un suscriptor cuyo buffer está lleno.
+     */
+    public enum Politica {
+        // Se descartan sus mensajes más antiguos y sigue conectado
+        DESCARTAR_ANTIGUOS,
+        // Se cierra su conexión; el cliente puede reconectarse y recargar el estado
+        DESCONECTAR
+    }
+
+    private record Mensaje<T>(long id, String evento, T dato) {
+    }
+
+    private final int capacidadPorSuscriptor;
+    private final Semaphore plazas;
+    private final long timeoutMs;
+    private final Politica politica;
+    private final Executor escritores;
+
+    private final Set<Suscriptor> suscriptores = ConcurrentHashMap.newKeySet();
+    private final AtomicLong secuencia = new AtomicLong();
+    private final LongAdder descartados = new LongAdder();
+    private final LongAdder desconectados = new LongAdder();
+
+    public DifusorSse(int capacidadPorSuscriptor, int maxSuscriptores, long timeoutMs, Politica politica,
+                      Executor escritores) {
+        this.capacidadPorSuscriptor = capacidadPorSuscriptor;
+        this.plazas = new Semaphore(maxSuscriptores);
+        this.timeoutMs = timeoutMs;
+        this.politica = politica;
+        this.escritores = escritores;
+    }
+
+    public SseEmitter suscribir() {
+        if (!plazas.tryAcquire()) {
+            throw new ServicioSaturadoException("Se alcanzó el máximo de suscriptores simultáneos; intente más tarde");
+        }
+        Suscriptor suscriptor = new Suscriptor(new SseEmitter(timeoutMs));
+        suscriptores.add(suscriptor);
+        escritores.execute(suscriptor::escribir);
+        return suscriptor.emitter;
+    }
+
+    public void publicar(String evento, T dato) {
+        Mensaje<T> mensaje = new Mensaje<>(secuencia.incrementAndGet(), evento, dato);
+        for (Suscriptor suscriptor : suscriptores) {
+            suscriptor.ofrecer(mensaje);
+        }
+    }
+
+    public void cerrar() {
+        for (Suscriptor suscriptor : suscriptores) {
+            suscriptor.cerrar();
+            suscriptor.emitter.complete();
+        }
+    }
+
+    public long getPublicados() {
+        return secuencia.get();
+    }
+
+    public long getDescartados() {
+        return descartados.sum();
+    }
+
+    public long getDesconectados() {
+        return desconectados.sum();
+    }
+
+    public int getSuscriptores() {
+        return suscriptores.size();
+    }
+
+    private final class Suscriptor {
+        private final SseEmitter emitter;
+        private final BlockingQueue<Mensaje<T>> buffer = new ArrayBlockingQueue<>(capacidadPorSuscriptor);
+        private volatile boolean activo = true;
+        private volatile Thread escritor;
+
+        Suscriptor(SseEmitter emitter) {
+            this.emitter = emitter;
+            emitter.onCompletion(this::cerrar);
+            emitter.onTimeout(this::cerrar);
+            emitter.onError(e -> cerrar());
+        }
+
+        void ofrecer(Mensaje<T> mensaje) {
+            if (buffer.offer(mensaje)) {
+                return;
+            }
+            if (politica == Politica.DESCONECTAR) {
+                descartados.increment();
+                desconectados.increment();
+                cerrar();
+                emitter.complete();
+                return;
+            }
+            while (!buffer.offer(mensaje)) {
+                if (buffer.poll() != null) {
+                    descartados.increment();
+                }
+            }
+        }
+
+        void escribir() {
+            escritor = Thread.currentThread();
+            try {
+                while (activo) {
+                    Mensaje<T> mensaje = buffer.take();
+                    emitter.send(SseEmitter.event()
+                            .id(Long.toString(mensaje.id()))
+                            .name(mensaje.evento())
+                            .data(mensaje.dato()));
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (IOException | IllegalStateException e) {
+                // El cliente se desconectó o el emitter ya se completó
+                cerrar();
+            }
+        }
+
+        void cerrar() {
+            if (!activo) {
+                return;
+            }
+            activo = false;
+            // Solo quien lo saca del conjunto devuelve la plaza, aunque cerrar() se llame dos veces a la vez
+            if (suscriptores.remove(this)) {
+                plazas.release();
+            }
+            Thread hilo = escritor;
+            if (hilo != null) {
+                hilo.interrupt();
+            }
+        }
+    }
+}
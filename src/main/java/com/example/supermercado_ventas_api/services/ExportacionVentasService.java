@@ -0,0 +1,150 @@
+package com.example.supermercado_ventas_api.services;
+
+import com.example.supermercado_ventas_api.configs.Cronometrado;
+import com.example.supermercado_ventas_api.dtos.VentaExportacionDTO;
+import com.example.supermercado_ventas_api.repositories.VentaRepository;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Locale;
+
+/**
+ * Exportación de ventas para finanzas en CSV o NDJSON, una línea por producto vendido. Cada fila
+ * pasa del cursor JDBC a la salida sin listas intermedias ni entidades, de modo que la memoria
+ * usada no depende del rango exportado: solo se retiene el buffer de escritura.
+ */
+@Service
+@RequiredArgsConstructor
+public class ExportacionVentasService {
+
+    private static final int TAMANIO_BUFFER = 64 * 1024;
+
+    private static final String CABECERA_CSV = "id_venta,fecha,id_sucursal,sucursal,activa,total_venta," +
+            "id_producto,producto,categoria,cantidad,precio_unidad,subtotal";
+
+    private final VentaRepository ventaRepository;
+    private final ObjectMapper objectMapper;
+
+    /**
+     * Formatos de exportación admitidos.
+     */
+    @Getter
+    public enum Formato {
+        CSV(new MediaType("text", "csv", StandardCharsets.UTF_8), "csv"),
+        NDJSON(new MediaType("application", "x-ndjson", StandardCharsets.UTF_8), "ndjson");
+
+        private final MediaType tipoContenido;
+        private final String extension;
+
+        Formato(MediaType tipoContenido, String extension) {
+            this.tipoContenido = tipoContenido;
+            this.extension = extension;
+        }
+
+        public static Formato desde(String valor) {
+            try {
+                return Formato.valueOf(valor.trim().toUpperCase(Locale.ROOT));
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("Formato inválido: '" + valor + "'. Valores permitidos: csv, ndjson.");
+            }
+        }
+    }
+
+    // Se comprueba antes de empezar a escribir: después la respuesta ya está comprometida
+    public void validarRango(LocalDate desde, LocalDate hasta) {
+        if (desde != null && hasta != null && desde.isAfter(hasta)) {
+            throw new IllegalArgumentException("La fecha 'desde' no puede ser posterior a 'hasta'.");
+        }
+    }
+
+    /**
+     * Escribe en la salida las ventas de los días [desde, hasta], ambos incluidos.
+     * No cierra la salida.
+     */
+    @Cronometrado("ventas.exportar")
+    public void exportar(Formato formato, LocalDate desde, LocalDate hasta, Long idSucursal, OutputStream salida) throws IOException {
+        validarRango(desde, hasta);
+        LocalDateTime inicio = desde != null ? desde.atStartOfDay() : null;
+        LocalDateTime fin = hasta != null ? hasta.plusDays(1).atStartOfDay() : null;
+
+        try {
+            switch (formato) {
+                case CSV -> escribirCsv(inicio, fin, idSucursal, salida);
+                case NDJSON -> escribirNdjson(inicio, fin, idSucursal, salida);
+            }
+        } catch (UncheckedIOException e) {
+            // El cliente cortó la descarga: la consulta ya se ha abortado y se cierra el cursor
+            throw e.getCause();
+        }
+    }
+
+    private void escribirCsv(LocalDateTime inicio, LocalDateTime fin, Long idSucursal, OutputStream salida) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(salida, StandardCharsets.UTF_8), TAMANIO_BUFFER);
+        writer.write(CABECERA_CSV);
+        writer.write("\r\n");
+
+        StringBuilder linea = new StringBuilder(256);
+        ventaRepository.recorrerParaExportar(inicio, fin, idSucursal, fila -> {
+            linea.setLength(0);
+            linea.append(fila.idVenta()).append(',')
+                    .append(fila.fecha()).append(',')
+                    .append(fila.idSucursal()).append(',');
+            campoCsv(linea, fila.nombreSucursal()).append(',')
+                    .append(fila.activa()).append(',')
+                    .append(fila.totalVenta().toPlainString()).append(',')
+                    .append(fila.idProducto()).append(',');
+            campoCsv(linea, fila.nombreProducto()).append(',');
+            campoCsv(linea, fila.categoria()).append(',')
+                    .append(fila.cantidad()).append(',')
+                    .append(fila.precioUnidad().toPlainString()).append(',')
+                    .append(fila.subtotal().toPlainString()).append("\r\n");
+            try {
+                writer.append(linea);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        writer.flush();
+    }
+
+    private void escribirNdjson(LocalDateTime inicio, LocalDateTime fin, Long idSucursal, OutputStream salida) throws IOException {
+        JsonGenerator generador = objectMapper.getFactory().createGenerator(salida);
+        generador.setRootValueSeparator(null);
+        // Sin vaciar tras cada fila: se escribe a la red por bloques del buffer del generador
+        ObjectWriter writer = objectMapper.writerFor(VentaExportacionDTO.class)
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+
+        ventaRepository.recorrerParaExportar(inicio, fin, idSucursal, fila -> {
+            try {
+                writer.writeValue(generador, fila);
+                generador.writeRaw('\n');
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        generador.flush();
+    }
+
+    // RFC 4180: los campos con separadores, comillas o saltos de línea van entre comillas dobles
+    private static StringBuilder campoCsv(StringBuilder linea, String valor) {
+        if (valor.indexOf(',') < 0 && valor.indexOf('"') < 0 && valor.indexOf('\n') < 0 && valor.indexOf('\r') < 0) {
+            return linea.append(valor);
+        }
+        return linea.append('"').append(valor.replace("\"", "\"\"")).append('"');
+    }
+}
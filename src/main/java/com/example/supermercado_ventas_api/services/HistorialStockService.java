@@ -0,0 +1,104 @@
+package com.example.supermercado_ventas_api.services;
+
+import com.example.supermercado_ventas_api.dtos.StockHistoricoDTO;
+import com.example.supermercado_ventas_api.repositories.MovimientoStockRepository;
+import com.example.supermercado_ventas_api.repositories.SnapshotStockRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Stock en un instante pasado a partir del libro de movimientos que escribe
+ * {@link AuditoriaStockService}. Un hilo propio genera cada cierto tiempo un snapshot con el saldo
+ * de los productos que se han movido, y una consulta parte del último snapshot anterior a la
+ * fecha y suma los movimientos posteriores, de modo que su coste depende de la actividad desde
+ * el último snapshot y no del tamaño del libro.
+ * <p>
+ * El camino de venta no cambia: {@code Inventario.cantidad} sigue siendo el valor que valida el
+ * stock con un único UPDATE condicional, y el libro se alimenta de forma asíncrona tras el commit,
+ * al menos una vez mientras el proceso se cierre de forma ordenada. Por eso los movimientos de los
+ * últimos milisegundos pueden no verse todavía en el historial. Si el proceso muere de golpe, los
+ * movimientos aún en memoria se pierden y, como no hay conciliación con {@code Inventario.cantidad},
+ * los snapshots posteriores de esos productos quedan desplazados en la misma cantidad.
+ */
+@Slf4j
+@Service
+public class HistorialStockService {
+
+    private final MovimientoStockRepository movimientoStockRepository;
+    private final SnapshotStockRepository snapshotStockRepository;
+    private final Duration intervaloSnapshot;
+
+    private final LongAdder snapshotsGenerados = new LongAdder();
+
+    private Thread generador;
+
+    public HistorialStockService(MovimientoStockRepository movimientoStockRepository,
+                                 SnapshotStockRepository snapshotStockRepository,
+                                 @Value("${inventario.historial.intervalo-snapshot-minutos:60}") long intervaloSnapshotMinutos) {
+        this.movimientoStockRepository = movimientoStockRepository;
+        this.snapshotStockRepository = snapshotStockRepository;
+        this.intervaloSnapshot = Duration.ofMinutes(intervaloSnapshotMinutos);
+    }
+
+    @PostConstruct
+    void iniciar() {
+        generador = Thread.ofPlatform().daemon().name("snapshots-stock").start(this::generarPeriodicamente);
+    }
+
+    @PreDestroy
+    void detener() {
+        generador.interrupt();
+    }
+
+    // Tras la carga inicial de datos: los inventarios anteriores al libro entran con su cantidad actual
+    @EventListener(ApplicationReadyEvent.class)
+    public void abrirLibro() {
+        int abiertos = movimientoStockRepository.registrarApertura(LocalDateTime.now());
+        if (abiertos > 0) {
+            log.info("Libro de movimientos abierto para {} inventarios existentes", abiertos);
+        }
+    }
+
+    /**
+     * Genera un snapshot de los productos con movimientos desde el anterior.
+     *
+     * @return número de snapshots creados
+     */
+    public int generarSnapshot() {
+        int generados = snapshotStockRepository.generar(Clock.systemDefaultZone());
+        snapshotsGenerados.add(generados);
+        return generados;
+    }
+
+    public List<StockHistoricoDTO> stockEn(LocalDateTime fecha, Long idSucursal) {
+        return snapshotStockRepository.stockEn(fecha, idSucursal);
+    }
+
+    private void generarPeriodicamente() {
+        while (!Thread.currentThread().isInterrupted()) {
+            try {
+                Thread.sleep(intervaloSnapshot);
+                generarSnapshot();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (RuntimeException e) {
+                log.warn("Error al generar el snapshot de stock", e);
+            }
+        }
+    }
+
+    public long getSnapshotsGenerados() {
+        return snapshotsGenerados.sum();
+    }
+}
@@ -0,0 +1,98 @@
+package com.example.supermercado_ventas_api.services;
+
+import com.example.supermercado_ventas_api.dtos.VentaRequestDTO;
+import com.example.supermercado_ventas_api.dtos.VentaResponseDTO;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Registro idempotente de ventas mediante la cabecera Idempotency-Key. Las respuestas recientes
+ * se guardan en una caché LRU acotada; si la clave ya no está en memoria se busca la venta por
+ * su clave en la BD, de modo que un reintento de la caja nunca vuelve a ejecutar registrarVenta.
+ */
+@Service
+public class IdempotenciaVentaService {
+
+    public static final int LONGITUD_MAXIMA_CLAVE = 100;
+
+    private final VentaService ventaService;
+    private final Cache<String, VentaResponseDTO> respuestas;
+
+    private final LongAdder aciertosMemoria = new LongAdder();
+    private final LongAdder aciertosBaseDatos = new LongAdder();
+
+    /**
+     * Resultado del registro: {@code repetida} indica que la venta ya existía y no se volvió a procesar.
+     */
+    public record Resultado(VentaResponseDTO venta, boolean repetida) {
+    }
+
+    public IdempotenciaVentaService(VentaService ventaService,
+                                    @Value("${ventas.idempotencia.max-entradas:10000}") long maxEntradas,
+                                    @Value("${ventas.idempotencia.ttl-horas:24}") long ttlHoras) {
+        this.ventaService = ventaService;
+        this.respuestas = Caffeine.newBuilder()
+                .maximumSize(maxEntradas)
+                .expireAfterWrite(Duration.ofHours(ttlHoras))
+                .build();
+    }
+
+    public Resultado registrar(String claveIdempotencia, VentaRequestDTO ventaDTO) {
+        if (claveIdempotencia == null) {
+            return new Resultado(ventaService.registrarVenta(ventaDTO), false);
+        }
+        if (claveIdempotencia.isBlank() || claveIdempotencia.length() > LONGITUD_MAXIMA_CLAVE) {
+            throw new IllegalArgumentException("La cabecera Idempotency-Key debe tener entre 1 y "
+                    + LONGITUD_MAXIMA_CLAVE + " caracteres.");
+        }
+
+        Optional<VentaResponseDTO> previa = buscarPrevia(claveIdempotencia);
+        if (previa.isPresent()) {
+            return new Resultado(previa.get(), true);
+        }
+
+        try {
+            VentaResponseDTO venta = ventaService.registrarVenta(ventaDTO, claveIdempotencia);
+            respuestas.put(claveIdempotencia, venta);
+            return new Resultado(venta, false);
+        } catch (DataIntegrityViolationException e) {
+            // Un reintento simultáneo con la misma clave se confirmó primero: se devuelve esa venta
+            VentaResponseDTO ganadora = buscarPrevia(claveIdempotencia).orElseThrow(() -> e);
+            return new Resultado(ganadora, true);
+        }
+    }
+
+    private Optional<VentaResponseDTO> buscarPrevia(String claveIdempotencia) {
+        VentaResponseDTO enMemoria = respuestas.getIfPresent(claveIdempotencia);
+        if (enMemoria != null) {
+            aciertosMemoria.increment();
+            return Optional.of(enMemoria);
+        }
+
+        Optional<VentaResponseDTO> enBaseDatos = ventaService.buscarPorClaveIdempotencia(claveIdempotencia);
+        enBaseDatos.ifPresent(venta -> {
+            aciertosBaseDatos.increment();
+            respuestas.put(claveIdempotencia, venta);
+        });
+        return enBaseDatos;
+    }
+
+    public long getAciertosMemoria() {
+        return aciertosMemoria.sum();
+    }
+
+    public long getAciertosBaseDatos() {
+        return aciertosBaseDatos.sum();
+    }
+
+    public long getTamanio() {
+        return respuestas.estimatedSize();
+    }
+}
@@ -1,21 +1,33 @@
 package com.example.supermercado_ventas_api.services;
 
+import com.example.supermercado_ventas_api.configs.Cronometrado;
+import com.example.supermercado_ventas_api.configs.ReintentoOptimista;
+import com.example.supermercado_ventas_api.dtos.InventarioPaginaResponseDTO;
 import com.example.supermercado_ventas_api.dtos.InventarioRequestDTO;
 import com.example.supermercado_ventas_api.dtos.InventarioResponseDTO;
 import com.example.supermercado_ventas_api.dtos.InventarioUpdateDTO;
+import com.example.supermercado_ventas_api.dtos.StockMinimoDTO;
+import com.example.supermercado_ventas_api.events.AjusteStockEvent;
+import com.example.supermercado_ventas_api.events.InventarioActualizadoEvent;
+import com.example.supermercado_ventas_api.events.InventarioEliminadoEvent;
 import com.example.supermercado_ventas_api.exceptions.InventarioNotFoundException;
 import com.example.supermercado_ventas_api.exceptions.ProductoNotFoundException;
 import com.example.supermercado_ventas_api.exceptions.SucursalNotFoundException;
 import com.example.supermercado_ventas_api.models.Inventario;
 import com.example.supermercado_ventas_api.models.Producto;
 import com.example.supermercado_ventas_api.models.Sucursal;
+import com.example.supermercado_ventas_api.models.TipoMovimiento;
 import com.example.supermercado_ventas_api.repositories.InventarioRepository;
 import com.example.supermercado_ventas_api.repositories.ProductoRepository;
 import com.example.supermercado_ventas_api.repositories.SucursalRepository;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
 import java.util.List;
 
 @Service
@@ -24,27 +36,29 @@ public class InventarioService {
     private final InventarioRepository inventarioRepository;
     private final ProductoRepository productoRepository;
     private final SucursalRepository sucursalRepository;
+    private final ApplicationEventPublisher eventPublisher;
 
-    // 1. Ver Stock del inventario
-    public List<InventarioResponseDTO> verStock(Long sucursalId, Long productoId) {
-        List<Inventario> resultados;
-
-        if (sucursalId != null && productoId != null) {
-            resultados = inventarioRepository.findBySucursalId(sucursalId).stream().filter(i -> i.getProducto().getId().equals(productoId)).toList();
-        } else if (sucursalId != null) {
-            resultados = inventarioRepository.findBySucursalId(sucursalId);
-        } else if (productoId != null) {
-            resultados = inventarioRepository.findByProductoId(productoId);
-        } else {
-            resultados = inventarioRepository.findAll();
-        }
+    private static final int LIMITE_MAXIMO_PAGINA = 500;
+
+    // 1. Ver Stock del inventario, paginado por cursor sobre el ID de inventario
+    @Cronometrado("inventario.stock.consultar")
+    public InventarioPaginaResponseDTO verStock(Long sucursalId, Long productoId, String cursor, int limite) {
+        int tamanio = Math.clamp(limite, 1, LIMITE_MAXIMO_PAGINA);
+
+        // Pedimos un elemento extra para saber si existe una página siguiente
+        List<InventarioResponseDTO> stock = inventarioRepository.findStock(sucursalId, productoId,
+                decodificarCursor(cursor), PageRequest.of(0, tamanio + 1));
+
+        boolean hayMas = stock.size() > tamanio;
+        List<InventarioResponseDTO> pagina = hayMas ? stock.subList(0, tamanio) : stock;
+        String nextCursor = hayMas ? codificarCursor(pagina.get(pagina.size() - 1).getId()) : null;
 
-        return resultados.stream()
-                .map(this::mapToRespondeDTO)
-                .toList();
+        return new InventarioPaginaResponseDTO(pagina, nextCursor);
     }
 
     // 2. Agregar Stock al inventario
+    @ReintentoOptimista
+    @Transactional
     public InventarioResponseDTO agregarInventario(InventarioRequestDTO inventarioDTO) {
         Sucursal sucursal = sucursalRepository.findById(inventarioDTO.idSucursal())
                 .orElseThrow(() -> new SucursalNotFoundException(inventarioDTO.idSucursal()));
@@ -61,29 +75,79 @@ public class InventarioService {
 
         inventarioExistente.setCantidad(inventarioExistente.getCantidad() + inventarioDTO.cantidad());
         inventarioRepository.save(inventarioExistente);
+        publicarAjuste(TipoMovimiento.ENTRADA, inventarioExistente, inventarioDTO.cantidad());
 
-        return mapToRespondeDTO(inventarioExistente);
+        return publicarActualizacion(inventarioExistente);
     }
 
     // 3. Modificar Stock de un inventario
+    @ReintentoOptimista
     @Transactional
     public InventarioResponseDTO actualizarStock(Long id, InventarioUpdateDTO inventarioDTO) {
         Inventario inventario = inventarioRepository.findById(id)
                 .orElseThrow(() -> new InventarioNotFoundException(id));
 
+        int variacion = inventarioDTO.cantidad() - inventario.getCantidad();
         inventario.setCantidad(inventarioDTO.cantidad());
 
         Inventario nuevoInventario = inventarioRepository.save(inventario);
-        return mapToRespondeDTO(nuevoInventario);
+        publicarAjuste(TipoMovimiento.AJUSTE, nuevoInventario, variacion);
+        return publicarActualizacion(nuevoInventario);
+    }
+
+    // Define o elimina (null) el umbral de reposición que vigila el motor de alertas de stock bajo
+    @ReintentoOptimista
+    @Transactional
+    public InventarioResponseDTO definirStockMinimo(Long id, StockMinimoDTO stockMinimoDTO) {
+        Inventario inventario = inventarioRepository.findById(id)
+                .orElseThrow(() -> new InventarioNotFoundException(id));
+
+        inventario.setStockMinimo(stockMinimoDTO.stockMinimo());
+
+        return publicarActualizacion(inventarioRepository.save(inventario));
     }
 
     // 4. Eliminar el Stock de un inventario
     @Transactional
     public void eliminarInventario(Long id) {
-        if (!inventarioRepository.existsById(id)) {
-            throw new InventarioNotFoundException(id);
+        Inventario inventario = inventarioRepository.findById(id)
+                .orElseThrow(() -> new InventarioNotFoundException(id));
+
+        inventarioRepository.delete(inventario);
+        // El stock que quedaba sale del libro para que el historial no lo arrastre
+        publicarAjuste(TipoMovimiento.BAJA, inventario, -inventario.getCantidad());
+        eventPublisher.publishEvent(new InventarioEliminadoEvent(id));
+    }
+
+    // El cursor es el ID del último inventario entregado, serializado como texto opaco en Base64 URL-safe
+    private String codificarCursor(Long id) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(id.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    private Long decodificarCursor(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return null;
+        }
+        try {
+            return Long.valueOf(new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8));
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("El cursor de paginación no es válido.");
+        }
+    }
+
+    // Los listeners (motor de alertas) reciben el nuevo estado una vez confirmada la transacción
+    private InventarioResponseDTO publicarActualizacion(Inventario inventario) {
+        InventarioResponseDTO respuesta = mapToRespondeDTO(inventario);
+        eventPublisher.publishEvent(new InventarioActualizadoEvent(respuesta));
+        return respuesta;
+    }
+
+    // El libro de auditoría registra la variación aplicada, que no se deduce de la cantidad final
+    private void publicarAjuste(TipoMovimiento tipo, Inventario inventario, int variacion) {
+        if (variacion != 0) {
+            eventPublisher.publishEvent(new AjusteStockEvent(tipo, inventario.getSucursal().getId(),
+                    inventario.getProducto().getId(), variacion));
         }
-        inventarioRepository.deleteById(id);
     }
 
     // Mapper Auxiliar
@@ -96,6 +160,7 @@ public class InventarioService {
                 .nombreProducto(inventario.getProducto().getNombreProducto())
                 .precioUnitario(inventario.getProducto().getPrecioProducto())
                 .cantidad(inventario.getCantidad())
+                .stockMinimo(inventario.getStockMinimo())
                 .build();
     }
 }
@@ -0,0 +1,53 @@
+package com.example.supermercado_ventas_api.services;
+
+import com.example.supermercado_ventas_api.configs.MetricasConfig;
+import com.example.supermercado_ventas_api.events.VentaAnuladaEvent;
+import com.example.supermercado_ventas_api.events.VentaRegistradaEvent;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+/**
+ * Contadores de negocio de las ventas, etiquetados por sucursal (con la cardinalidad acotada por
+ * {@link MetricasConfig}). Las ventas y anulaciones se cuentan tras el commit, de modo que los
+ * reintentos y las transacciones revertidas no inflan los totales.
+ */
+@Component
+public class MetricasVentas {
+
+    private final Meter.MeterProvider<Counter> registradas;
+    private final Meter.MeterProvider<Counter> anuladas;
+    private final Meter.MeterProvider<Counter> rechazadasPorStock;
+
+    public MetricasVentas(MeterRegistry meterRegistry) {
+        this.registradas = Counter.builder("ventas.registradas")
+                .description("Ventas confirmadas")
+                .withRegistry(meterRegistry);
+        this.anuladas = Counter.builder("ventas.anuladas")
+                .description("Ventas anuladas")
+                .withRegistry(meterRegistry);
+        this.rechazadasPorStock = Counter.builder("ventas.rechazadas.stock")
+                .description("Ventas rechazadas por stock insuficiente o producto sin inventario en la sucursal")
+                .withRegistry(meterRegistry);
+    }
+
+    public void stockInsuficiente(Long idSucursal) {
+        incrementar(rechazadasPorStock, idSucursal);
+    }
+
+    @TransactionalEventListener
+    public void onVentaRegistrada(VentaRegistradaEvent event) {
+        incrementar(registradas, event.idSucursal());
+    }
+
+    @TransactionalEventListener
+    public void onVentaAnulada(VentaAnuladaEvent event) {
+        incrementar(anuladas, event.idSucursal());
+    }
+
+    private void incrementar(Meter.MeterProvider<Counter> contador, Long idSucursal) {
+        contador.withTag(MetricasConfig.ETIQUETA_SUCURSAL, String.valueOf(idSucursal)).increment();
+    }
+}
@@ -1,5 +1,6 @@
 package com.example.supermercado_ventas_api.services;
 
+import com.example.supermercado_ventas_api.dtos.ProductoResponseDTO;
 import com.example.supermercado_ventas_api.exceptions.ProductoNotFoundException;
 import com.example.supermercado_ventas_api.models.Producto;
 import com.example.supermercado_ventas_api.repositories.InventarioRepository;
@@ -17,26 +18,40 @@ public class ProductoService {
     private final ProductoRepository productoRepository;
     private final VentaRepository ventaRepository;
     private final InventarioRepository inventarioRepository;
+    private final CatalogoProductosCache catalogoProductos;
+    private final VersionesCatalogo versionesCatalogo;
 
-    public List<Producto> findAll() {
-        return productoRepository.findAll();
+    // ETag del listado de productos; cambia con cada alta, modificación o baja
+    public String etagListado() {
+        return versionesCatalogo.etag(VersionesCatalogo.Tabla.PRODUCTOS);
+    }
+
+    public List<ProductoResponseDTO> findAll() {
+        return catalogoProductos.listar();
     }
 
     public Producto findById(Long id) {
-        return productoRepository.findById(id).orElseThrow(() -> new ProductoNotFoundException(id));
+        return catalogoProductos.buscar(id).orElseThrow(() -> new ProductoNotFoundException(id));
     }
 
     @Transactional
     public Producto create(Producto producto) {
-        return productoRepository.save(producto);
+        Producto creado = productoRepository.save(producto);
+        catalogoProductos.invalidar(creado.getId());
+        versionesCatalogo.incrementar(VersionesCatalogo.Tabla.PRODUCTOS);
+        return creado;
     }
 
     public Producto update(Long id, Producto producto) {
-        Producto productoExistente = findById(id);
+        // Se lee de la BD y no de la caché: las instancias cacheadas no deben modificarse
+        Producto productoExistente = productoRepository.findById(id).orElseThrow(() -> new ProductoNotFoundException(id));
         productoExistente.setNombreProducto(producto.getNombreProducto());
         productoExistente.setPrecioProducto(producto.getPrecioProducto());
         productoExistente.setCategoria(producto.getCategoria());
-        return productoRepository.save(productoExistente);
+        Producto actualizado = productoRepository.save(productoExistente);
+        catalogoProductos.invalidar(id);
+        versionesCatalogo.incrementar(VersionesCatalogo.Tabla.PRODUCTOS);
+        return actualizado;
     }
 
     @Transactional
@@ -56,5 +71,7 @@ public class ProductoService {
         }
 
         productoRepository.deleteById(id);
+        catalogoProductos.invalidar(id);
+        versionesCatalogo.incrementar(VersionesCatalogo.Tabla.PRODUCTOS);
     }
 }
@@ -19,6 +19,12 @@ import java.util.List;
 public class SucursalService {
     private final SucursalRepository sucursalRepository;
     private final VentaRepository ventaRepository;
+    private final VersionesCatalogo versionesCatalogo;
+
+    // ETag del listado de sucursales; cambia con cada alta, modificación o baja
+    public String etagListado() {
+        return versionesCatalogo.etag(VersionesCatalogo.Tabla.SUCURSALES);
+    }
 
     public List<Sucursal> findAll() {
         return sucursalRepository.findAll();
@@ -31,6 +37,7 @@ public class SucursalService {
     //Crea una nueva sucursal dentro de una transacción
     @Transactional
     public Sucursal create(Sucursal sucursal) {
+        versionesCatalogo.incrementar(VersionesCatalogo.Tabla.SUCURSALES);
         return sucursalRepository.save(sucursal);
     }
 
@@ -40,6 +47,7 @@ public class SucursalService {
         Sucursal sucursalExistente = findById(id);
         sucursalExistente.setNombreSucursal(sucursal.getNombreSucursal());
         sucursalExistente.setDireccion(sucursal.getDireccion());
+        versionesCatalogo.incrementar(VersionesCatalogo.Tabla.SUCURSALES);
         return sucursalRepository.save(sucursalExistente);
     }
 
@@ -54,5 +62,6 @@ public class SucursalService {
             throw new IllegalStateException("No se puede eliminar la sucursal porque tiene ventas asociadas.");
         }
         sucursalRepository.deleteById(id);
+        versionesCatalogo.incrementar(VersionesCatalogo.Tabla.SUCURSALES);
     }
 }
@@ -0,0 +1,196 @@
+package com.example.supermercado_ventas_api.services;
+
+import com.example.supermercado_ventas_api.dtos.DetalleVentaResponseDTO;
+import com.example.supermercado_ventas_api.dtos.ProductoTopVentasDTO;
+import com.example.supermercado_ventas_api.dtos.VentaResponseDTO;
+import com.example.supermercado_ventas_api.events.VentaAnuladaEvent;
+import com.example.supermercado_ventas_api.events.VentaRegistradaEvent;
+import com.example.supermercado_ventas_api.exceptions.SucursalNotFoundException;
+import com.example.supermercado_ventas_api.repositories.SucursalRepository;
+import com.example.supermercado_ventas_api.repositories.VentaRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Servicio que mantiene en memoria el ranking de productos más vendidos, global y por sucursal,
+ * para el día, la semana y el mes en curso. Se actualiza con cada venta o anulación confirmada
+ * y se reconstruye desde la base de datos al arrancar, de modo que las consultas no tocan la BD.
+ */
+@Service
+@RequiredArgsConstructor
+public class TopProductosService implements SmartInitializingSingleton {
+
+    private static final int K_MAXIMO = 100;
+
+    private final VentaRepository ventaRepository;
+    private final SucursalRepository sucursalRepository;
+
+    private volatile Map<Clave, Ranking> rankings = new ConcurrentHashMap<>();
+    private final Map<Long, String> nombresProducto = new ConcurrentHashMap<>();
+
+    /**
+     * Periodos de calendario sobre los que se calcula el ranking.
+     */
+    public enum Ventana {
+        DIA {
+            @Override
+            LocalDate inicio(LocalDate fecha) {
+                return fecha;
+            }
+        },
+        SEMANA {
+            @Override
+            LocalDate inicio(LocalDate fecha) {
+                return fecha.with(DayOfWeek.MONDAY);
+            }
+        },
+        MES {
+            @Override
+            LocalDate inicio(LocalDate fecha) {
+                return fecha.withDayOfMonth(1);
+            }
+        };
+
+        // Primer día del periodo al que pertenece la fecha
+        abstract LocalDate inicio(LocalDate fecha);
+
+        public static Ventana desde(String valor) {
+            try {
+                return Ventana.valueOf(valor.trim().toUpperCase(Locale.ROOT));
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("Ventana inválida: '" + valor + "'. Valores permitidos: dia, semana, mes.");
+            }
+        }
+    }
+
+    // idSucursal nulo representa el ranking global
+    private record Clave(Long idSucursal, Ventana ventana) {
+    }
+
+    private record Posicion(Long idProducto, long cantidad) {
+    }
+
+    private static final Comparator<Posicion> POR_CANTIDAD = Comparator
+            .comparingLong(Posicion::cantidad).reversed()
+            .thenComparing(Posicion::idProducto);
+
+    /**
+     * Cantidades vendidas de un periodo con un índice ordenado, de modo que
+     * actualizar cuesta O(log n) y leer el top-K cuesta O(k).
+     */
+    private static final class Ranking {
+        private LocalDate periodo;
+        private final Map<Long, Long> cantidades = new HashMap<>();
+        private final TreeSet<Posicion> orden = new TreeSet<>(POR_CANTIDAD);
+
+        synchronized void sumar(LocalDate inicioPeriodo, Long idProducto, long delta) {
+            if (periodo == null || inicioPeriodo.isAfter(periodo)) {
+                // Empieza un periodo nuevo: se descarta el anterior
+                periodo = inicioPeriodo;
+                cantidades.clear();
+                orden.clear();
+            } else if (inicioPeriodo.isBefore(periodo)) {
+                // Movimiento de un periodo ya cerrado (ej. anulación de una venta antigua)
+                return;
+            }
+
+            long anterior = cantidades.getOrDefault(idProducto, 0L);
+            long nueva = anterior + delta;
+            if (anterior > 0) {
+                orden.remove(new Posicion(idProducto, anterior));
+            }
+            if (nueva > 0) {
+                cantidades.put(idProducto, nueva);
+                orden.add(new Posicion(idProducto, nueva));
+            } else {
+                cantidades.remove(idProducto);
+            }
+        }
+
+        synchronized List<Posicion> top(LocalDate inicioPeriodoActual, int k) {
+            if (!inicioPeriodoActual.equals(periodo)) {
+                return List.of();
+            }
+            return orden.stream().limit(k).toList();
+        }
+    }
+
+    @TransactionalEventListener
+    public void onVentaRegistrada(VentaRegistradaEvent event) {
+        aplicar(rankings, event.idSucursal(), event.venta(), 1);
+    }
+
+    @TransactionalEventListener
+    public void onVentaAnulada(VentaAnuladaEvent event) {
+        aplicar(rankings, event.idSucursal(), event.venta(), -1);
+    }
+
+    /**
+     * Reconstruye los rankings al crear el contexto, antes de que arranque el servidor web: ninguna
+     * venta puede confirmarse mientras tanto. Con ApplicationReadyEvent ya se atienden peticiones y
+     * una venta confirmada durante la reconstrucción se perdería al sustituir el mapa o se contaría
+     * dos veces.
+     */
+    @Override
+    public void afterSingletonsInstantiated() {
+        reconstruir();
+    }
+
+    /**
+     * Reconstruye los rankings a partir de las ventas activas desde el inicio
+     * del periodo más largo en curso (la semana puede empezar en el mes anterior).
+     */
+    public void reconstruir() {
+        LocalDate hoy = LocalDate.now();
+        LocalDate desde = Collections.min(List.of(Ventana.SEMANA.inicio(hoy), Ventana.MES.inicio(hoy)));
+
+        Map<Clave, Ranking> nuevos = new ConcurrentHashMap<>();
+        for (Object[] fila : ventaRepository.findCantidadesVendidasPorDiaDesde(desde.atStartOfDay())) {
+            Long idSucursal = (Long) fila[0];
+            Long idProducto = (Long) fila[1];
+            nombresProducto.put(idProducto, (String) fila[2]);
+            sumar(nuevos, idSucursal, (LocalDate) fila[3], idProducto, ((Number) fila[4]).longValue());
+        }
+        rankings = nuevos;
+    }
+
+    public List<ProductoTopVentasDTO> obtenerTopProductos(int k, String ventana, Long idSucursal) {
+        Ventana periodo = Ventana.desde(ventana);
+
+        // Una sucursal con ranking ya tuvo ventas confirmadas: solo se consulta la BD si no lo tiene
+        Ranking ranking = rankings.get(new Clave(idSucursal, periodo));
+        if (ranking == null) {
+            if (idSucursal != null && !sucursalRepository.existsById(idSucursal)) {
+                throw new SucursalNotFoundException(idSucursal);
+            }
+            return List.of();
+        }
+        return ranking.top(periodo.inicio(LocalDate.now()), Math.clamp(k, 1, K_MAXIMO)).stream()
+                .map(p -> new ProductoTopVentasDTO(nombresProducto.get(p.idProducto()), p.cantidad()))
+                .toList();
+    }
+
+    private void aplicar(Map<Clave, Ranking> destino, Long idSucursal, VentaResponseDTO venta, int signo) {
+        LocalDate dia = venta.fecha().toLocalDate();
+        for (DetalleVentaResponseDTO detalle : venta.detalles()) {
+            nombresProducto.put(detalle.idProducto(), detalle.nombreProducto());
+            sumar(destino, idSucursal, dia, detalle.idProducto(), (long) signo * detalle.cantidad());
+        }
+    }
+
+    // Aplica el movimiento al ranking global y al de la sucursal en todas las ventanas
+    private void sumar(Map<Clave, Ranking> destino, Long idSucursal, LocalDate dia, Long idProducto, long delta) {
+        for (Ventana ventana : Ventana.values()) {
+            LocalDate inicio = ventana.inicio(dia);
+            destino.computeIfAbsent(new Clave(null, ventana), c -> new Ranking()).sumar(inicio, idProducto, delta);
+            destino.computeIfAbsent(new Clave(idSucursal, ventana), c -> new Ranking()).sumar(inicio, idProducto, delta);
+        }
+    }
+}
@@ -1,26 +1,42 @@
 package com.example.supermercado_ventas_api.services;
 
+import com.example.supermercado_ventas_api.configs.Cronometrado;
+import com.example.supermercado_ventas_api.configs.ReintentoOptimista;
 import com.example.supermercado_ventas_api.dtos.*;
+import com.example.supermercado_ventas_api.events.VentaAnuladaEvent;
+import com.example.supermercado_ventas_api.events.VentaRegistradaEvent;
 import com.example.supermercado_ventas_api.exceptions.ProductoNotFoundException;
 import com.example.supermercado_ventas_api.exceptions.SucursalNotFoundException;
 import com.example.supermercado_ventas_api.exceptions.VentaNotFoundException;
 import com.example.supermercado_ventas_api.models.*;
 import com.example.supermercado_ventas_api.repositories.InventarioRepository;
-import com.example.supermercado_ventas_api.repositories.ProductoRepository;
 import com.example.supermercado_ventas_api.repositories.SucursalRepository;
+import com.example.supermercado_ventas_api.repositories.VentaDiariaRepository;
 import com.example.supermercado_ventas_api.repositories.VentaRepository;
 import jakarta.transaction.Transactional;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 
 import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
 import java.util.ArrayList;
+import java.util.Base64;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
 import java.util.function.Function;
 import java.util.stream.Collectors;
 
@@ -29,89 +45,341 @@ import java.util.stream.Collectors;
 public class VentaService {
 
     private final VentaRepository ventaRepository;
-    private final ProductoRepository productoRepository;
+    private final CatalogoProductosCache catalogoProductos;
     private final SucursalRepository sucursalRepository;
     private final InventarioRepository inventarioRepository;
+    private final VentaDiariaRepository ventaDiariaRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final Validator validator;
+    private final MetricasVentas metricasVentas;
 
+    private static final int LIMITE_MAXIMO_PAGINA = 500;
+
+    @Cronometrado("ventas.registrar")
     @Transactional
     public VentaResponseDTO registrarVenta(VentaRequestDTO ventaDTO) {
+        return registrarVenta(ventaDTO, null);
+    }
+
+    /**
+     * Registra la venta guardando la clave de idempotencia de la caja, si la hay. Si otra petición
+     * con la misma clave se confirma antes, el índice único hace fallar el commit con
+     * {@link org.springframework.dao.DataIntegrityViolationException} y la venta se revierte.
+     */
+    @Cronometrado("ventas.registrar")
+    @Transactional
+    public VentaResponseDTO registrarVenta(VentaRequestDTO ventaDTO, String claveIdempotencia) {
         // 1. Validar existencia de la sucursal
         Sucursal sucursal = sucursalRepository.findById(ventaDTO.idSucursal())
                 .orElseThrow(() -> new SucursalNotFoundException(ventaDTO.idSucursal()));
 
-        // 2. Cargar productos en un mapa para evitar múltiples consultas a la BD
+        // 2. Obtener los productos del catálogo en caché; solo los que falten se consultan a la BD
         List<Long> productoIDs = ventaDTO.detalle().stream()
                 .map(DetalleRequestDTO::idProducto)
                 .toList();
 
-        Map<Long, Producto> productosMap = productoRepository.findAllById(productoIDs).stream()
-                .collect(Collectors.toMap(Producto::getId, Function.identity()));
+        Map<Long, Producto> productosMap = catalogoProductos.buscarPorIds(productoIDs);
 
         // --- FASE DE VALIDACIÓN PREVIA ---
-        // Verificamos stock de TODO el carrito antes de realizar cualquier descuento
+        // Agrupamos las cantidades por producto para descontar cada fila de inventario una sola vez.
+        // Ordenadas por ID: todas las ventas bloquean las filas en el mismo orden y no se interbloquean
+        Map<Long, Integer> cantidadesPorProducto = new TreeMap<>();
         for (DetalleRequestDTO item : ventaDTO.detalle()) {
-            Producto producto = productosMap.get(item.idProducto());
-            if (producto == null) {
+            if (!productosMap.containsKey(item.idProducto())) {
                 throw new ProductoNotFoundException(item.idProducto());
             }
+            cantidadesPorProducto.merge(item.idProducto(), item.cantidad(), Integer::sum);
+        }
 
-            Inventario inventario = inventarioRepository.findBySucursalAndProducto(sucursal, producto)
-                    .orElseThrow(() -> new IllegalStateException("El producto '" + producto.getNombreProducto() + "' no está registrado en esta sucursal."));
+        // --- FASE DE DESCUENTO DE STOCK ---
+        // UPDATE condicional en lote: solo descuenta si hay stock suficiente, sin lectura previa
+        int[] filasActualizadas = inventarioRepository.descontarStock(sucursal.getId(), cantidadesPorProducto);
 
-            if (inventario.getCantidad() < item.cantidad()) {
-                // Mensaje detallado para el Frontend
-                throw new IllegalStateException(String.format(
-                        "Stock insuficiente para '%s'. Disponible: %d, solicitado: %d",
-                        producto.getNombreProducto(), inventario.getCantidad(), item.cantidad()
-                ));
+        List<Long> productosSinStock = new ArrayList<>();
+        int i = 0;
+        for (Long idProducto : cantidadesPorProducto.keySet()) {
+            if (filasActualizadas[i++] == 0) {
+                productosSinStock.add(idProducto);
             }
         }
 
+        if (!productosSinStock.isEmpty()) {
+            metricasVentas.stockInsuficiente(sucursal.getId());
+            // Al lanzar la excepción se revierte toda la venta, incluidos los descuentos ya aplicados
+            throw stockNoDisponible(sucursal, productosSinStock, productosMap, cantidadesPorProducto);
+        }
+
         // --- FASE DE PROCESAMIENTO ---
+        Venta venta = construirVenta(sucursal, ventaDTO.detalle(), productosMap);
+        venta.setClaveIdempotencia(claveIdempotencia);
+        BigDecimal totalVenta = venta.getTotalVenta();
+
+        // Guardar la venta, acumularla en el resumen diario y retornar el DTO
+        Venta ventaGuardada = ventaRepository.save(venta);
+        ventaDiariaRepository.acumular(sucursal.getId(), venta.getFecha().toLocalDate(), totalVenta, 1);
+
+        VentaResponseDTO respuesta = mapToDTO(ventaGuardada);
+        eventPublisher.publishEvent(new VentaRegistradaEvent(sucursal.getId(), respuesta));
+        return respuesta;
+    }
+
+    // Venta ya registrada con la clave de idempotencia indicada, tal como se devolvió al registrarla
+    public Optional<VentaResponseDTO> buscarPorClaveIdempotencia(String claveIdempotencia) {
+        return ventaRepository.findConDetallesByClaveIdempotencia(claveIdempotencia).map(this::mapToDTO);
+    }
+
+    // Construye la venta activa con sus detalles y total, fechada en el instante actual
+    private Venta construirVenta(Sucursal sucursal, List<DetalleRequestDTO> detalle, Map<Long, Producto> productosMap) {
         Venta venta = new Venta();
         venta.setSucursal(sucursal);
-        venta.setFecha(LocalDateTime.now());
+        // Truncamos a la precisión de la columna para que el cursor (fecha, id) coincida con lo persistido
+        venta.setFecha(LocalDateTime.now().truncatedTo(ChronoUnit.MICROS));
         venta.setActiva(true);
 
-        List<VentaDetalle> detalles = ventaDTO.detalle().stream()
-                .map(item -> {
-                    Producto producto = productosMap.get(item.idProducto());
-                    Inventario inventario = inventarioRepository.findBySucursalAndProducto(sucursal, producto).get();
-
-                    // Actualizar y guardar inventario
-                    inventario.setCantidad(inventario.getCantidad() - item.cantidad());
-                    inventarioRepository.save(inventario);
-
-                    return VentaDetalle.builder()
-                            .venta(venta)
-                            .producto(producto)
-                            .cantidad(item.cantidad())
-                            .build();
-                }).toList();
+        List<VentaDetalle> detalles = detalle.stream()
+                .map(item -> VentaDetalle.builder()
+                        .venta(venta)
+                        .producto(productosMap.get(item.idProducto()))
+                        .cantidad(item.cantidad())
+                        .build())
+                .toList();
 
         venta.setDetalles(new ArrayList<>(detalles));
 
         // Calcular el total de la venta
-        BigDecimal totalVenta = venta.getDetalles().stream()
+        venta.setTotalVenta(venta.getDetalles().stream()
                 .map(d -> d.getProducto().getPrecioProducto().multiply(BigDecimal.valueOf(d.getCantidad())))
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
+                .reduce(BigDecimal.ZERO, BigDecimal::add));
+        return venta;
+    }
 
-        venta.setTotalVenta(totalVenta);
+    // Construye el mensaje de error detallado cuando el descuento condicional no afectó ninguna fila
+    private IllegalStateException stockNoDisponible(Sucursal sucursal, List<Long> productosSinStock,
+                                                    Map<Long, Producto> productosMap, Map<Long, Integer> cantidadesPorProducto) {
+        Map<Long, Inventario> inventarios = inventarioRepository.findMapaBySucursalIdAndProductoIds(sucursal.getId(), productosSinStock);
 
-        // Guardar la venta y retornar el DTO
-        Venta ventaGuardada = ventaRepository.save(venta);
-        return mapToDTO(ventaGuardada);
+        Long idProducto = productosSinStock.get(0);
+        Producto producto = productosMap.get(idProducto);
+        Inventario inventario = inventarios.get(idProducto);
+
+        if (inventario == null) {
+            return new IllegalStateException("El producto '" + producto.getNombreProducto() + "' no está registrado en esta sucursal.");
+        }
+        return new IllegalStateException(String.format(
+                "Stock insuficiente para '%s'. Disponible: %d, solicitado: %d",
+                producto.getNombreProducto(), inventario.getCantidad(), cantidadesPorProducto.get(idProducto)));
+    }
+
+    /**
+     * Registra en bloque las ventas que una caja acumuló sin conexión. Sucursales, productos e
+     * inventario se cargan una sola vez para todo el lote (el inventario bloqueado hasta el commit),
+     * el stock se asigna en memoria en el orden recibido y las ventas aceptadas se insertan en lotes JDBC.
+     * Una venta inválida o sin stock se rechaza sin afectar al resto, y una clave de idempotencia
+     * ya registrada (en BD o antes en el mismo lote) se informa como duplicada sin volver a aplicarse.
+     */
+    @Transactional
+    public VentaLoteResponseDTO registrarLote(VentaLoteRequestDTO loteDTO) {
+        List<VentaLoteItemDTO> items = loteDTO.ventas();
+
+        // --- PRECARGA DE TODO EL LOTE ---
+        Map<String, Long> registradasPreviamente = ventaRepository.findIdsByClaveIdempotencia(items.stream()
+                .map(VentaLoteItemDTO::claveIdempotencia)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toSet()));
+
+        Set<Long> idsSucursal = new HashSet<>();
+        Set<Long> idsProducto = new HashSet<>();
+        for (VentaLoteItemDTO item : items) {
+            if (item.venta() != null && item.venta().idSucursal() != null && item.venta().detalle() != null) {
+                idsSucursal.add(item.venta().idSucursal());
+                item.venta().detalle().stream()
+                        .map(DetalleRequestDTO::idProducto)
+                        .filter(Objects::nonNull)
+                        .forEach(idsProducto::add);
+            }
+        }
+
+        Map<Long, Sucursal> sucursales = sucursalRepository.findAllById(idsSucursal).stream()
+                .collect(Collectors.toMap(Sucursal::getId, Function.identity()));
+        Map<Long, Producto> productosMap = catalogoProductos.buscarPorIds(idsProducto);
+        Map<ClaveInventario, Inventario> inventarios = new HashMap<>();
+        if (!sucursales.isEmpty() && !productosMap.isEmpty()) {
+            inventarioRepository.findParaActualizar(sucursales.keySet(), productosMap.keySet())
+                    .forEach(inv -> inventarios.put(new ClaveInventario(inv.getSucursal().getId(), inv.getProducto().getId()), inv));
+        }
+
+        // --- VALIDACIÓN Y ASIGNACIÓN DE STOCK POR VENTA ---
+        List<ResultadoLote> resultados = new ArrayList<>(items.size());
+        Map<String, Venta> aceptadasPorClave = new LinkedHashMap<>();
+        for (VentaLoteItemDTO item : items) {
+            String clave = item.claveIdempotencia();
+            String error = validarItemLote(item);
+
+            if (error == null && registradasPreviamente.containsKey(clave)) {
+                resultados.add(new ResultadoLote(clave, VentaLoteResultadoDTO.Estado.DUPLICADA, registradasPreviamente.get(clave), null, null));
+                continue;
+            }
+            if (error == null && aceptadasPorClave.containsKey(clave)) {
+                resultados.add(new ResultadoLote(clave, VentaLoteResultadoDTO.Estado.DUPLICADA, null, aceptadasPorClave.get(clave), null));
+                continue;
+            }
+            if (error == null) {
+                error = asignarStock(item.venta(), sucursales, productosMap, inventarios);
+            }
+            if (error != null) {
+                resultados.add(new ResultadoLote(clave, VentaLoteResultadoDTO.Estado.RECHAZADA, null, null, error));
+                continue;
+            }
+
+            Venta venta = construirVenta(sucursales.get(item.venta().idSucursal()), item.venta().detalle(), productosMap);
+            venta.setClaveIdempotencia(clave);
+            aceptadasPorClave.put(clave, venta);
+            resultados.add(new ResultadoLote(clave, VentaLoteResultadoDTO.Estado.REGISTRADA, null, venta, null));
+        }
+
+        // --- PERSISTENCIA EN BLOQUE ---
+        // Hibernate agrupa los INSERT de ventas y detalles y los UPDATE del stock descontado en lotes JDBC
+        List<Venta> aceptadas = ventaRepository.saveAll(aceptadasPorClave.values());
+
+        Map<Long, Map<LocalDate, List<Venta>>> porSucursalYDia = aceptadas.stream()
+                .collect(Collectors.groupingBy(v -> v.getSucursal().getId(),
+                        Collectors.groupingBy(v -> v.getFecha().toLocalDate())));
+        porSucursalYDia.forEach((idSucursal, porDia) -> porDia.forEach((dia, ventas) ->
+                ventaDiariaRepository.acumular(idSucursal, dia,
+                        ventas.stream().map(Venta::getTotalVenta).reduce(BigDecimal.ZERO, BigDecimal::add),
+                        ventas.size())));
+
+        for (Venta venta : aceptadas) {
+            eventPublisher.publishEvent(new VentaRegistradaEvent(venta.getSucursal().getId(), mapToDTO(venta)));
+        }
+
+        List<VentaLoteResultadoDTO> resultadosDTO = resultados.stream().map(ResultadoLote::toDTO).toList();
+        Map<VentaLoteResultadoDTO.Estado, Long> totales = resultadosDTO.stream()
+                .collect(Collectors.groupingBy(VentaLoteResultadoDTO::estado, Collectors.counting()));
+        return new VentaLoteResponseDTO(
+                totales.getOrDefault(VentaLoteResultadoDTO.Estado.REGISTRADA, 0L),
+                totales.getOrDefault(VentaLoteResultadoDTO.Estado.DUPLICADA, 0L),
+                totales.getOrDefault(VentaLoteResultadoDTO.Estado.RECHAZADA, 0L),
+                resultadosDTO);
+    }
+
+    private record ClaveInventario(Long idSucursal, Long idProducto) {
+    }
+
+    // El ID de las ventas aceptadas en el lote solo se conoce al persistirlas
+    private record ResultadoLote(String clave, VentaLoteResultadoDTO.Estado estado, Long idVenta, Venta venta, String mensaje) {
+        VentaLoteResultadoDTO toDTO() {
+            return new VentaLoteResultadoDTO(clave, estado, venta != null ? venta.getId() : idVenta, mensaje);
+        }
+    }
+
+    // Aplica a cada venta del lote las mismas validaciones que a una venta individual
+    private String validarItemLote(VentaLoteItemDTO item) {
+        Set<ConstraintViolation<VentaLoteItemDTO>> violaciones = validator.validate(item);
+        if (violaciones.isEmpty()) {
+            return null;
+        }
+        return violaciones.stream()
+                .map(ConstraintViolation::getMessage)
+                .sorted()
+                .collect(Collectors.joining(" "));
     }
 
-    public List<VentaResponseDTO> buscarVentas(Long idSucursal, LocalDate fecha, boolean soloActivas) {
+    // Descuenta en memoria el stock de la venta si todas sus líneas tienen existencias; si no, devuelve el motivo
+    private String asignarStock(VentaRequestDTO ventaDTO, Map<Long, Sucursal> sucursales,
+                                Map<Long, Producto> productosMap, Map<ClaveInventario, Inventario> inventarios) {
+        if (!sucursales.containsKey(ventaDTO.idSucursal())) {
+            return new SucursalNotFoundException(ventaDTO.idSucursal()).getMessage();
+        }
+
+        Map<Long, Integer> cantidadesPorProducto = new LinkedHashMap<>();
+        for (DetalleRequestDTO item : ventaDTO.detalle()) {
+            if (!productosMap.containsKey(item.idProducto())) {
+                return new ProductoNotFoundException(item.idProducto()).getMessage();
+            }
+            cantidadesPorProducto.merge(item.idProducto(), item.cantidad(), Integer::sum);
+        }
+
+        for (Map.Entry<Long, Integer> linea : cantidadesPorProducto.entrySet()) {
+            Producto producto = productosMap.get(linea.getKey());
+            Inventario inventario = inventarios.get(new ClaveInventario(ventaDTO.idSucursal(), linea.getKey()));
+            if (inventario == null) {
+                return "El producto '" + producto.getNombreProducto() + "' no está registrado en esta sucursal.";
+            }
+            if (inventario.getCantidad() < linea.getValue()) {
+                return String.format("Stock insuficiente para '%s'. Disponible: %d, solicitado: %d",
+                        producto.getNombreProducto(), inventario.getCantidad(), linea.getValue());
+            }
+        }
+
+        cantidadesPorProducto.forEach((idProducto, cantidad) -> {
+            Inventario inventario = inventarios.get(new ClaveInventario(ventaDTO.idSucursal(), idProducto));
+            inventario.setCantidad(inventario.getCantidad() - cantidad);
+        });
+        return null;
+    }
+
+    /**
+     * Busca ventas paginando por cursor sobre (fecha, id), de la más reciente a la más antigua.
+     * Cada página cuesta dos consultas (IDs y carga con detalles) sin importar su tamaño.
+     */
+    public VentaPaginaResponseDTO buscarVentas(Long idSucursal, LocalDate fecha, boolean soloActivas, String cursor, int limite) {
         if (idSucursal != null && !sucursalRepository.existsById(idSucursal)) {
             throw new SucursalNotFoundException(idSucursal);
         }
-        return ventaRepository.findByFiltrosAvanzados(idSucursal, fecha, soloActivas).stream()
-                .map(this::mapToDTO)
-                .toList();
+        int tamanio = Math.clamp(limite, 1, LIMITE_MAXIMO_PAGINA);
+        CursorVenta posicion = CursorVenta.decodificar(cursor);
+
+        // Convertimos el día solicitado en el rango [fecha 00:00, fecha+1 00:00)
+        LocalDateTime desde = fecha != null ? fecha.atStartOfDay() : null;
+        LocalDateTime hasta = fecha != null ? fecha.plusDays(1).atStartOfDay() : null;
+
+        // Pedimos un elemento extra para saber si existe una página siguiente
+        List<Long> ids = ventaRepository.findIdsByFiltrosAvanzados(idSucursal, desde, hasta, soloActivas,
+                posicion != null ? posicion.fecha() : null,
+                posicion != null ? posicion.id() : null,
+                PageRequest.of(0, tamanio + 1));
+
+        boolean hayMas = ids.size() > tamanio;
+        List<Long> idsPagina = hayMas ? ids.subList(0, tamanio) : ids;
+        if (idsPagina.isEmpty()) {
+            return new VentaPaginaResponseDTO(List.of(), null);
+        }
+
+        // La carga con JOIN FETCH no respeta el orden, así que lo restauramos según los IDs
+        Map<Long, Venta> ventasPorId = ventaRepository.findConDetallesByIdIn(idsPagina).stream()
+                .collect(Collectors.toMap(Venta::getId, Function.identity()));
+        List<Venta> ventas = idsPagina.stream().map(ventasPorId::get).toList();
+
+        Venta ultima = ventas.get(ventas.size() - 1);
+        String nextCursor = hayMas ? new CursorVenta(ultima.getFecha(), ultima.getId()).codificar() : null;
+
+        return new VentaPaginaResponseDTO(ventas.stream().map(this::mapToDTO).toList(), nextCursor);
+    }
+
+    // Posición (fecha, id) de la última venta entregada, serializada como texto opaco en Base64 URL-safe
+    private record CursorVenta(LocalDateTime fecha, Long id) {
+
+        String codificar() {
+            String valor = fecha + "|" + id;
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(valor.getBytes(StandardCharsets.UTF_8));
+        }
+
+        static CursorVenta decodificar(String cursor) {
+            if (cursor == null || cursor.isBlank()) {
+                return null;
+            }
+            try {
+                String[] partes = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8).split("\\|");
+                return new CursorVenta(LocalDateTime.parse(partes[0]), Long.valueOf(partes[1]));
+            } catch (RuntimeException e) {
+                throw new IllegalArgumentException("El cursor de paginación no es válido.");
+            }
+        }
     }
 
+    @Cronometrado("ventas.anular")
+    @ReintentoOptimista
     @Transactional
     public void borrarVentaLogica(Long id) {
         Venta venta = ventaRepository.findById(id).orElseThrow(() -> new VentaNotFoundException(id));
@@ -119,14 +387,27 @@ public class VentaService {
         if (!venta.getActiva()) {
             throw new IllegalStateException("Esta venta ya fue anulada anteriormente");
         }
+        // Cargamos todo el inventario afectado en una sola consulta
+        List<Long> productoIDs = venta.getDetalles().stream()
+                .map(ventaDetalle -> ventaDetalle.getProducto().getId())
+                .toList();
+        Map<Long, Inventario> inventarios = inventarioRepository.findMapaBySucursalIdAndProductoIds(venta.getSucursal().getId(), productoIDs);
+
         for (VentaDetalle ventaDetalle : venta.getDetalles()) {
-            Inventario inventario = inventarioRepository.findBySucursalAndProducto(venta.getSucursal(), ventaDetalle.getProducto())
-                    .orElseThrow(() -> new IllegalStateException("Error de integridad: no se encuentra inventario para reponer stock"));
+            Inventario inventario = inventarios.get(ventaDetalle.getProducto().getId());
+            if (inventario == null) {
+                throw new IllegalStateException("Error de integridad: no se encuentra inventario para reponer stock");
+            }
             inventario.setCantidad(inventario.getCantidad() + ventaDetalle.getCantidad());
-            inventarioRepository.save(inventario);
         }
+        inventarioRepository.saveAll(inventarios.values());
         venta.setActiva(false);
         ventaRepository.save(venta);
+
+        // Descontamos la venta anulada del resumen de su día
+        ventaDiariaRepository.acumular(venta.getSucursal().getId(), venta.getFecha().toLocalDate(), venta.getTotalVenta().negate(), -1);
+
+        eventPublisher.publishEvent(new VentaAnuladaEvent(venta.getSucursal().getId(), mapToDTO(venta)));
     }
 
     private VentaResponseDTO mapToDTO(Venta v) {
@@ -164,11 +445,22 @@ public class VentaService {
         return result.get(0);
     }
 
-    public List<Map<String, Object>> obtenerEstadisticasVentas() {
-        return ventaRepository.findVentasDiarias().stream().map(obj -> {
+    /**
+     * Devuelve el total y el número de ventas activas por día, leyendo del resumen diario
+     * en lugar de agrupar toda la tabla de ventas. Todos los filtros son opcionales.
+     */
+    public List<Map<String, Object>> obtenerEstadisticasVentas(LocalDate desde, LocalDate hasta, Long idSucursal) {
+        if (desde != null && hasta != null && desde.isAfter(hasta)) {
+            throw new IllegalArgumentException("La fecha 'desde' no puede ser posterior a 'hasta'.");
+        }
+        if (idSucursal != null && !sucursalRepository.existsById(idSucursal)) {
+            throw new SucursalNotFoundException(idSucursal);
+        }
+        return ventaDiariaRepository.findResumenDiario(idSucursal, desde, hasta).stream().map(obj -> {
             Map<String, Object> map = new HashMap<>();
-            map.put("name", obj[0].toString().substring(0, 10)); // Solo la fecha YYYY-MM-DD
+            map.put("name", obj[0].toString()); // Fecha YYYY-MM-DD
             map.put("ventas", obj[1]);
+            map.put("numeroVentas", obj[2]);
             return map;
         }).collect(Collectors.toList());
     }
@@ -0,0 +1,72 @@
+package com.example.supermercado_ventas_api.services;
+
+import com.example.supermercado_ventas_api.dtos.VentaResponseDTO;
+import com.example.supermercado_ventas_api.events.VentaAnuladaEvent;
+import com.example.supermercado_ventas_api.events.VentaRegistradaEvent;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.time.Duration;
+
+/**
+ * Flujo en vivo de ventas para el panel: cada venta confirmada (y cada anulación) se reparte a
+ * los navegadores conectados por SSE, en lugar de que cada uno consulte periódicamente la API.
+ * Los eventos se publican tras el commit, por lo que nunca llegan ventas que luego se revierten.
+ */
+@Service
+public class VentasEnVivoService {
+
+    public static final String EVENTO_REGISTRADA = "venta-registrada";
+    public static final String EVENTO_ANULADA = "venta-anulada";
+
+    private final DifusorSse<VentaResponseDTO> difusor;
+
+    public VentasEnVivoService(@Value("${ventas.stream.capacidad-suscriptor:256}") int capacidadPorSuscriptor,
+                               @Value("${ventas.stream.max-suscriptores:100}") int maxSuscriptores,
+                               @Value("${ventas.stream.timeout-sse-minutos:30}") long timeoutMinutos,
+                               @Value("${ventas.stream.politica:DESCARTAR_ANTIGUOS}") DifusorSse.Politica politica) {
+        // Cada suscriptor escribe desde su propio hilo de plataforma. SseEmitter.send es synchronized y escribe en
+        // el socket: en Java 21 un hilo virtual bloqueado ahí por un cliente lento dejaría fijado su portador.
+        // Por eso el número de suscriptores (y de hilos) está acotado por ventas.stream.max-suscriptores
+        this.difusor = new DifusorSse<>(capacidadPorSuscriptor, maxSuscriptores, Duration.ofMinutes(timeoutMinutos).toMillis(), politica,
+                tarea -> Thread.ofPlatform().daemon().name("ventas-stream").start(tarea));
+    }
+
+    @TransactionalEventListener
+    public void onVentaRegistrada(VentaRegistradaEvent event) {
+        difusor.publicar(EVENTO_REGISTRADA, event.venta());
+    }
+
+    @TransactionalEventListener
+    public void onVentaAnulada(VentaAnuladaEvent event) {
+        difusor.publicar(EVENTO_ANULADA, event.venta());
+    }
+
+    public SseEmitter suscribir() {
+        return difusor.suscribir();
+    }
+
+    @PreDestroy
+    void cerrar() {
+        difusor.cerrar();
+    }
+
+    public long getPublicadas() {
+        return difusor.getPublicados();
+    }
+
+    public long getDescartadas() {
+        return difusor.getDescartados();
+    }
+
+    public long getDesconectados() {
+        return difusor.getDesconectados();
+    }
+
+    public int getSuscriptores() {
+        return difusor.getSuscriptores();
+    }
+}
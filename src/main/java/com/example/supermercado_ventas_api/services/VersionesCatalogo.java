@@ -0,0 +1,57 @@
+package com.example.supermercado_ventas_api.services;
+
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Contador de versión por tabla del catálogo, usado para generar los ETag de los listados.
+ * Cada escritura de {@link ProductoService} o {@link SucursalService} incrementa la versión, de modo
+ * que un GET condicional puede responder 304 sin consultar ni serializar nada. El instante de
+ * arranque forma parte del ETag para que un reinicio no reutilice etiquetas anteriores; con varias
+ * instancias detrás de un balanceador el contador tendría que compartirse.
+ */
+@Component
+public class VersionesCatalogo {
+
+    public enum Tabla {
+        PRODUCTOS, SUCURSALES
+    }
+
+    private final String arranque = Long.toString(System.currentTimeMillis(), 36);
+    private final Map<Tabla, AtomicLong> versiones = new EnumMap<>(Tabla.class);
+
+    public VersionesCatalogo() {
+        for (Tabla tabla : Tabla.values()) {
+            versiones.put(tabla, new AtomicLong());
+        }
+    }
+
+    // ETag fuerte del listado; se calcula antes de leer los datos para no anunciar nunca una versión más nueva que el cuerpo
+    public String etag(Tabla tabla) {
+        return "\"" + tabla.name().toLowerCase() + "-" + arranque + "-" + versiones.get(tabla).get() + "\"";
+    }
+
+    /**
+     * Incrementa la versión al terminar la transacción en curso (o ya, si no hay ninguna). Se usa
+     * afterCompletion para que corra después de las invalidaciones de caché registradas en afterCommit;
+     * un rollback solo provoca una respuesta completa innecesaria.
+     */
+    public void incrementar(Tabla tabla) {
+        AtomicLong version = versiones.get(tabla);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    version.incrementAndGet();
+                }
+            });
+        } else {
+            version.incrementAndGet();
+        }
+    }
+}
@@ -0,0 +1,176 @@
+package com.example.supermercado_ventas_api;
+
+import com.example.supermercado_ventas_api.dtos.AlertaStockDTO;
+import com.example.supermercado_ventas_api.dtos.DetalleVentaResponseDTO;
+import com.example.supermercado_ventas_api.dtos.InventarioResponseDTO;
+import com.example.supermercado_ventas_api.dtos.VentaResponseDTO;
+import com.example.supermercado_ventas_api.events.InventarioActualizadoEvent;
+import com.example.supermercado_ventas_api.events.VentaAnuladaEvent;
+import com.example.supermercado_ventas_api.events.VentaRegistradaEvent;
+import com.example.supermercado_ventas_api.repositories.InventarioRepository;
+import com.example.supermercado_ventas_api.services.AlertaStockService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.*;
+
+// El hilo despachador no se arranca: las alertas quedan en la cola y se inspeccionan con los contadores.
+// "filas" simula la tabla de inventario: cada cambio confirmado se aplica ahí antes de llamar al listener
+@ExtendWith(MockitoExtension.class)
+class AlertaStockServiceTest {
+
+    private static final Long SUCURSAL = 1L;
+
+    @Mock
+    private InventarioRepository inventarioRepository;
+
+    private AlertaStockService alertaStockService;
+    // ID de inventario -> {cantidad, versión}
+    private final Map<Long, long[]> filas = new HashMap<>();
+
+    @BeforeEach
+    void setup() {
+        when(inventarioRepository.findConStockMinimo()).thenReturn(List.of(
+                inventario(100L, 10L, 12, 10),
+                inventario(200L, 20L, 50, 5)));
+        filas.put(100L, new long[]{12, 1});
+        filas.put(200L, new long[]{50, 1});
+        lenient().when(inventarioRepository.findCantidadYVersionByIdIn(anyCollection())).thenAnswer(i ->
+                i.<Collection<Long>>getArgument(0).stream()
+                        .map(id -> new Object[]{id, (int) filas.get(id)[0], filas.get(id)[1]})
+                        .toList());
+        alertaStockService = new AlertaStockService(inventarioRepository, 10, 30);
+        alertaStockService.reconstruir();
+    }
+
+    @Test
+    @DisplayName("Una venta que deja el stock en el umbral debe emitir una sola alerta")
+    void ventaQueCruzaElUmbralAlertaUnaVez() {
+        confirmar(100L, -1);
+        alertaStockService.onVentaRegistrada(venta(10L, 1));
+        assertEquals(0, alertaStockService.getPendientes());
+
+        confirmar(100L, -1);
+        alertaStockService.onVentaRegistrada(venta(10L, 1));
+        confirmar(100L, -3);
+        alertaStockService.onVentaRegistrada(venta(10L, 3));
+
+        assertEquals(1, alertaStockService.getPendientes());
+        AlertaStockDTO alerta = alertaStockService.alertasActivas().getFirst();
+        assertEquals(10L, alerta.idProducto());
+        assertEquals(7, alerta.cantidad());
+    }
+
+    @Test
+    @DisplayName("Tras volver a superar el umbral, una nueva bajada debe alertar otra vez")
+    void anulacionRearmaLaAlerta() {
+        confirmar(100L, -2);
+        alertaStockService.onVentaRegistrada(venta(10L, 2));
+        confirmar(100L, 2);
+        alertaStockService.onVentaAnulada(new VentaAnuladaEvent(SUCURSAL, venta(10L, 2).venta()));
+        assertTrue(alertaStockService.alertasActivas().isEmpty());
+
+        confirmar(100L, -2);
+        alertaStockService.onVentaRegistrada(venta(10L, 2));
+
+        assertEquals(2, alertaStockService.getPendientes());
+    }
+
+    @Test
+    @DisplayName("Los productos sin umbral no se vigilan ni provocan consultas")
+    void productoSinUmbralNoAlerta() {
+        alertaStockService.onVentaRegistrada(venta(99L, 1000));
+
+        assertEquals(0, alertaStockService.getPendientes());
+        assertEquals(2, alertaStockService.getVigilados());
+        verify(inventarioRepository, never()).findCantidadYVersionByIdIn(anyCollection());
+    }
+
+    @Test
+    @DisplayName("Definir un umbral por encima del stock alerta de inmediato y quitarlo deja de vigilar")
+    void ajustesDeUmbral() {
+        filas.put(300L, new long[]{4, 1});
+        alertaStockService.onInventarioActualizado(new InventarioActualizadoEvent(inventario(300L, 30L, 4, 5)));
+        assertEquals(1, alertaStockService.getPendientes());
+
+        alertaStockService.onInventarioActualizado(new InventarioActualizadoEvent(inventario(300L, 30L, 4, null)));
+        assertEquals(2, alertaStockService.getVigilados());
+    }
+
+    @Test
+    @DisplayName("El listener de una venta que llega después del de un ajuste posterior no debe descontarla otra vez")
+    void ventaYAjusteFueraDeOrden() {
+        // La venta confirma primero y el ajuste después, pero el listener del ajuste se ejecuta antes
+        confirmar(100L, -2);
+        filas.put(100L, new long[]{30, filas.get(100L)[1] + 1});
+        alertaStockService.onInventarioActualizado(new InventarioActualizadoEvent(inventario(100L, 10L, 30, 10)));
+        alertaStockService.onVentaRegistrada(venta(10L, 2));
+        assertTrue(alertaStockService.alertasActivas().isEmpty());
+
+        confirmar(100L, -20);
+        alertaStockService.onVentaRegistrada(venta(10L, 20));
+
+        // Aplicando variaciones quedaría en 8: la venta se habría descontado sobre un valor que ya la incluía
+        assertEquals(10, alertaStockService.alertasActivas().getFirst().cantidad());
+    }
+
+    @Test
+    @DisplayName("Un suscriptor debe quedar registrado aunque reciba alertas activas al conectarse")
+    void suscriptorConAlertasActivas() {
+        confirmar(100L, -5);
+        alertaStockService.onVentaRegistrada(venta(10L, 5));
+
+        alertaStockService.suscribir();
+
+        assertEquals(1, alertaStockService.alertasActivas().size());
+        assertEquals(1, alertaStockService.getSuscriptores());
+    }
+
+    @Test
+    @DisplayName("Con la cola llena se debe descartar la alerta más antigua")
+    void colaLlenaDescartaLaMasAntigua() {
+        alertaStockService = new AlertaStockService(inventarioRepository, 1, 30);
+        alertaStockService.reconstruir();
+
+        confirmar(100L, -5);
+        alertaStockService.onVentaRegistrada(venta(10L, 5));
+        confirmar(200L, -45);
+        alertaStockService.onVentaRegistrada(venta(20L, 45));
+
+        assertEquals(1, alertaStockService.getPendientes());
+        assertEquals(1, alertaStockService.getDescartadas());
+        assertEquals(2, alertaStockService.getEmitidas());
+    }
+
+    // --- Métodos Auxiliares ---
+    // Simula una escritura confirmada sobre la fila: cambia la cantidad e incrementa la versión
+    private void confirmar(Long idInventario, int variacion) {
+        long[] fila = filas.get(idInventario);
+        filas.put(idInventario, new long[]{fila[0] + variacion, fila[1] + 1});
+    }
+
+    private InventarioResponseDTO inventario(Long id, Long idProducto, int cantidad, Integer stockMinimo) {
+        return new InventarioResponseDTO(id, SUCURSAL, "Centro", idProducto, "Producto " + idProducto,
+                BigDecimal.ONE, cantidad, stockMinimo);
+    }
+
+    private VentaRegistradaEvent venta(Long idProducto, int cantidad) {
+        DetalleVentaResponseDTO detalle = new DetalleVentaResponseDTO(idProducto, "Producto " + idProducto, "General",
+                cantidad, BigDecimal.ONE, BigDecimal.valueOf(cantidad));
+        return new VentaRegistradaEvent(SUCURSAL, new VentaResponseDTO(1L, "Centro", LocalDateTime.now(),
+                BigDecimal.valueOf(cantidad), true, List.of(detalle)));
+    }
+}
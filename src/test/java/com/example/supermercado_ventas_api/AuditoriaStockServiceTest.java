@@ -0,0 +1,155 @@
+package com.example.supermercado_ventas_api;
+
+import com.example.supermercado_ventas_api.dtos.DetalleVentaResponseDTO;
+import com.example.supermercado_ventas_api.dtos.VentaResponseDTO;
+import com.example.supermercado_ventas_api.events.AjusteStockEvent;
+import com.example.supermercado_ventas_api.events.VentaAnuladaEvent;
+import com.example.supermercado_ventas_api.events.VentaRegistradaEvent;
+import com.example.supermercado_ventas_api.models.MovimientoStock;
+import com.example.supermercado_ventas_api.models.TipoMovimiento;
+import com.example.supermercado_ventas_api.repositories.MovimientoStockRepository;
+import com.example.supermercado_ventas_api.services.AuditoriaStockService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.security.authentication.TestingAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+// El hilo escritor no se arranca: el test actúa como consumidor del buffer llamando a vaciar()
+@ExtendWith(MockitoExtension.class)
+class AuditoriaStockServiceTest {
+
+    private static final Long SUCURSAL = 1L;
+
+    @Mock
+    private MovimientoStockRepository movimientoStockRepository;
+
+    private AuditoriaStockService auditoriaStockService;
+
+    @BeforeEach
+    void setup() {
+        auditoriaStockService = new AuditoriaStockService(movimientoStockRepository, 64, 2, 10);
+    }
+
+    @Test
+    @DisplayName("Ventas, anulaciones y ajustes deben escribirse en lotes con el signo de su variación")
+    void escribeMovimientosEnLotes() {
+        List<List<MovimientoStock>> lotes = new ArrayList<>();
+        doAnswer(i -> lotes.add(List.copyOf(i.<List<MovimientoStock>>getArgument(0))))
+                .when(movimientoStockRepository).insertarLote(anyList());
+
+        auditoriaStockService.onVentaRegistrada(new VentaRegistradaEvent(SUCURSAL, venta(10L, 3)));
+        auditoriaStockService.onVentaAnulada(new VentaAnuladaEvent(SUCURSAL, venta(10L, 3)));
+        auditoriaStockService.onAjusteStock(new AjusteStockEvent(TipoMovimiento.ENTRADA, SUCURSAL, 20L, 50));
+
+        assertEquals(3, auditoriaStockService.vaciar());
+
+        assertEquals(2, lotes.size());
+        List<MovimientoStock> movimientos = lotes.stream().flatMap(List::stream).toList();
+        assertEquals(List.of(TipoMovimiento.VENTA, TipoMovimiento.ANULACION, TipoMovimiento.ENTRADA),
+                movimientos.stream().map(MovimientoStock::getTipo).toList());
+        assertEquals(List.of(-3, 3, 50), movimientos.stream().map(MovimientoStock::getCantidad).toList());
+        assertEquals(7L, movimientos.getFirst().getIdVenta());
+        assertEquals(0, auditoriaStockService.getPendientes());
+    }
+
+    @Test
+    @DisplayName("Un lote que falla debe reintentarse hasta guardarse, sin perder movimientos")
+    void loteFallidoSeReintenta() {
+        List<List<MovimientoStock>> intentos = new ArrayList<>();
+        doAnswer(i -> {
+            intentos.add(List.copyOf(i.<List<MovimientoStock>>getArgument(0)));
+            if (intentos.size() == 1) {
+                throw new DataAccessResourceFailureException("BD caída");
+            }
+            return null;
+        }).when(movimientoStockRepository).insertarLote(anyList());
+
+        auditoriaStockService.onAjusteStock(new AjusteStockEvent(TipoMovimiento.AJUSTE, SUCURSAL, 20L, -5));
+
+        assertEquals(1, auditoriaStockService.vaciar());
+
+        assertEquals(2, intentos.size());
+        assertEquals(intentos.get(0), intentos.get(1));
+        assertEquals(-5, intentos.get(1).getFirst().getCantidad());
+        assertEquals(1, auditoriaStockService.getLotesFallidos());
+        assertEquals(1, auditoriaStockService.getEscritos());
+    }
+
+    @Test
+    @DisplayName("Con el buffer lleno el movimiento pasa a la cola de desbordamiento sin perderse")
+    void bufferLlenoDesbordaSinPerder() {
+        auditoriaStockService = new AuditoriaStockService(movimientoStockRepository, 2, 2, 10);
+
+        for (int i = 0; i < 3; i++) {
+            auditoriaStockService.onAjusteStock(new AjusteStockEvent(TipoMovimiento.AJUSTE, SUCURSAL, 20L, i + 1));
+        }
+
+        assertEquals(2, auditoriaStockService.getPendientes());
+        assertEquals(1, auditoriaStockService.getPendientesDesbordamiento());
+        assertEquals(1, auditoriaStockService.getDesbordados());
+        assertEquals(3, auditoriaStockService.vaciar());
+        assertEquals(0, auditoriaStockService.getPendientesDesbordamiento());
+    }
+
+    @Test
+    @DisplayName("Un error permanente debe aislar la fila inválida y guardar el resto del lote")
+    void errorPermanenteAislaLaFila() {
+        List<MovimientoStock> guardados = new ArrayList<>();
+        doAnswer(i -> {
+            List<MovimientoStock> lote = i.getArgument(0);
+            if (lote.stream().anyMatch(m -> m.getCantidad() == 99)) {
+                throw new DataIntegrityViolationException("Dato inválido");
+            }
+            guardados.addAll(lote);
+            return null;
+        }).when(movimientoStockRepository).insertarLote(anyList());
+
+        auditoriaStockService.onAjusteStock(new AjusteStockEvent(TipoMovimiento.AJUSTE, SUCURSAL, 20L, 99));
+        auditoriaStockService.onAjusteStock(new AjusteStockEvent(TipoMovimiento.AJUSTE, SUCURSAL, 20L, 1));
+
+        assertEquals(2, auditoriaStockService.vaciar());
+
+        assertEquals(List.of(1), guardados.stream().map(MovimientoStock::getCantidad).toList());
+        assertEquals(1, auditoriaStockService.getRechazados());
+        assertEquals(1, auditoriaStockService.getEscritos());
+    }
+
+    @Test
+    @DisplayName("Un nombre de usuario más largo que la columna debe truncarse")
+    void usuarioLargoSeTrunca() {
+        List<MovimientoStock> guardados = new ArrayList<>();
+        doAnswer(i -> guardados.addAll(i.getArgument(0))).when(movimientoStockRepository).insertarLote(anyList());
+        SecurityContextHolder.getContext().setAuthentication(new TestingAuthenticationToken("u".repeat(150), null));
+        try {
+            auditoriaStockService.onAjusteStock(new AjusteStockEvent(TipoMovimiento.AJUSTE, SUCURSAL, 20L, 1));
+        } finally {
+            SecurityContextHolder.clearContext();
+        }
+
+        auditoriaStockService.vaciar();
+
+        assertEquals(100, guardados.getFirst().getUsuario().length());
+    }
+
+    // --- Métodos Auxiliares ---
+    private VentaResponseDTO venta(Long idProducto, int cantidad) {
+        DetalleVentaResponseDTO detalle = new DetalleVentaResponseDTO(idProducto, "Producto " + idProducto, "General",
+                cantidad, BigDecimal.ONE, BigDecimal.valueOf(cantidad));
+        return new VentaResponseDTO(7L, "Centro", LocalDateTime.now(), BigDecimal.valueOf(cantidad), true, List.of(detalle));
+    }
+}
@@ -0,0 +1,93 @@
+package com.example.supermercado_ventas_api;
+
+import com.example.supermercado_ventas_api.models.Producto;
+import com.example.supermercado_ventas_api.repositories.ProductoRepository;
+import com.example.supermercado_ventas_api.services.CatalogoProductosCache;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class CatalogoProductosCacheTest {
+
+    @Mock
+    private ProductoRepository productoRepository;
+
+    private CatalogoProductosCache catalogo;
+
+    @BeforeEach
+    void setup() {
+        catalogo = new CatalogoProductosCache(productoRepository, 100, 10);
+    }
+
+    @Test
+    @DisplayName("Debe consultar la BD solo la primera vez que se pide un producto")
+    void segundaLecturaDesdeCache() {
+        when(productoRepository.findById(1L)).thenReturn(Optional.of(producto(1L, "Arroz")));
+
+        assertEquals("Arroz", catalogo.buscar(1L).orElseThrow().getNombreProducto());
+        assertEquals("Arroz", catalogo.buscar(1L).orElseThrow().getNombreProducto());
+
+        verify(productoRepository, times(1)).findById(1L);
+        assertEquals(1, catalogo.getAciertos());
+        assertEquals(1, catalogo.getFallos());
+    }
+
+    @Test
+    @DisplayName("La carga por lote solo debe consultar los productos que faltan en caché")
+    void cargaPorLoteSoloDeFaltantes() {
+        when(productoRepository.findAllById(Set.of(1L, 2L))).thenReturn(List.of(producto(1L, "Arroz"), producto(2L, "Leche")));
+        when(productoRepository.findAllById(Set.of(3L))).thenReturn(List.of());
+
+        catalogo.buscarPorIds(List.of(1L, 2L));
+        Map<Long, Producto> productos = catalogo.buscarPorIds(List.of(1L, 2L, 3L));
+
+        assertEquals(Set.of(1L, 2L), productos.keySet());
+        verify(productoRepository).findAllById(Set.of(3L));
+    }
+
+    @Test
+    @DisplayName("Tras invalidar un producto debe volver a leerse de la BD, igual que el listado")
+    void invalidacionFuerzaRelectura() {
+        when(productoRepository.findById(1L))
+                .thenReturn(Optional.of(producto(1L, "Arroz")))
+                .thenReturn(Optional.of(producto(1L, "Arroz Integral")));
+        when(productoRepository.findAll()).thenReturn(List.of(producto(1L, "Arroz")));
+
+        catalogo.buscar(1L);
+        catalogo.listar();
+        catalogo.invalidar(1L);
+
+        assertEquals("Arroz Integral", catalogo.buscar(1L).orElseThrow().getNombreProducto());
+        catalogo.listar();
+        verify(productoRepository, times(2)).findAll();
+    }
+
+    @Test
+    @DisplayName("Un producto inexistente no debe quedar cacheado")
+    void productoInexistenteNoSeCachea() {
+        when(productoRepository.findById(9L)).thenReturn(Optional.empty());
+
+        assertTrue(catalogo.buscar(9L).isEmpty());
+        assertTrue(catalogo.buscar(9L).isEmpty());
+
+        verify(productoRepository, times(2)).findById(9L);
+    }
+
+    // --- Métodos Auxiliares ---
+    private Producto producto(Long id, String nombre) {
+        return Producto.builder().id(id).nombreProducto(nombre).precioProducto(BigDecimal.ONE).categoria("Alimentos").build();
+    }
+}
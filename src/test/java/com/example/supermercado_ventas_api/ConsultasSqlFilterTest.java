@@ -0,0 +1,59 @@
+package com.example.supermercado_ventas_api;
+
+import com.example.supermercado_ventas_api.configs.ConsultasSqlFilter;
+import com.example.supermercado_ventas_api.configs.ContadorConsultasSql;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.FilterChain;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ConsultasSqlFilterTest {
+
+    private final MeterRegistry registry = new SimpleMeterRegistry();
+
+    @Test
+    @DisplayName("Debe registrar las sentencias de la petición bajo el patrón de su endpoint")
+    void registraSentenciasPorEndpoint() throws Exception {
+        ConsultasSqlFilter filtro = new ConsultasSqlFilter(registry, 20, false, Map.of());
+
+        filtro.doFilter(peticion(), new MockHttpServletResponse(), ejecutarSentencias(3));
+
+        var sentencias = registry.get("http.server.sql.sentencias").tag("uri", "/api/ventas/{id}").summary();
+        assertEquals(1, sentencias.count());
+        assertEquals(3, sentencias.totalAmount());
+    }
+
+    @Test
+    @DisplayName("En modo estricto, superar el presupuesto del endpoint debe hacer fallar la petición")
+    void modoEstrictoFallaAlSuperarPresupuesto() {
+        ConsultasSqlFilter filtro = new ConsultasSqlFilter(registry, 20, true, Map.of("GET /api/ventas/{id}", 2));
+
+        IllegalStateException e = assertThrows(IllegalStateException.class,
+                () -> filtro.doFilter(peticion(), new MockHttpServletResponse(), ejecutarSentencias(3)));
+        assertTrue(e.getMessage().contains("GET /api/ventas/{id}"));
+    }
+
+    // --- Métodos Auxiliares ---
+    private MockHttpServletRequest peticion() {
+        return new MockHttpServletRequest("GET", "/api/ventas/7");
+    }
+
+    // Simula el controlador: resuelve el patrón de la ruta y ejecuta n sentencias
+    private FilterChain ejecutarSentencias(int n) {
+        return (request, response) -> {
+            request.setAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE, "/api/ventas/{id}");
+            for (int i = 0; i < n; i++) {
+                ContadorConsultasSql.antesDeSentencia();
+                ContadorConsultasSql.despuesDeSentencia();
+            }
+        };
+    }
+}
@@ -0,0 +1,71 @@
+package com.example.supermercado_ventas_api;
+
+import com.example.supermercado_ventas_api.exceptions.ServicioSaturadoException;
+import com.example.supermercado_ventas_api.services.DifusorSse;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.Executor;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Las tareas de escritura no se ejecutan: los buffers no se vacían y se puede simular un cliente lento
+class DifusorSseTest {
+
+    private static final Executor SIN_ESCRITURA = tarea -> {
+    };
+
+    @Test
+    @DisplayName("Con DESCARTAR_ANTIGUOS un cliente lento pierde los mensajes más antiguos pero sigue suscrito")
+    void clienteLentoDescartaAntiguos() {
+        DifusorSse<String> difusor = new DifusorSse<>(2, 10, 60_000, DifusorSse.Politica.DESCARTAR_ANTIGUOS, SIN_ESCRITURA);
+        difusor.suscribir();
+
+        for (int i = 0; i < 5; i++) {
+            difusor.publicar("venta", "v" + i);
+        }
+
+        assertEquals(5, difusor.getPublicados());
+        assertEquals(3, difusor.getDescartados());
+        assertEquals(1, difusor.getSuscriptores());
+    }
+
+    @Test
+    @DisplayName("Con DESCONECTAR un cliente lento se desconecta sin afectar a los demás")
+    void clienteLentoSeDesconecta() {
+        DifusorSse<String> difusor = new DifusorSse<>(2, 10, 60_000, DifusorSse.Politica.DESCONECTAR, SIN_ESCRITURA);
+        difusor.suscribir();
+
+        difusor.publicar("venta", "v1");
+        difusor.publicar("venta", "v2");
+        difusor.suscribir();
+        difusor.publicar("venta", "v3");
+
+        assertEquals(1, difusor.getDesconectados());
+        assertEquals(1, difusor.getSuscriptores());
+    }
+
+    @Test
+    @DisplayName("Por encima del máximo de suscriptores se rechaza la suscripción hasta que se libere una plaza")
+    void rechazaSuscriptoresPorEncimaDelMaximo() {
+        DifusorSse<String> difusor = new DifusorSse<>(2, 1, 60_000, DifusorSse.Politica.DESCONECTAR, SIN_ESCRITURA);
+        difusor.suscribir();
+
+        assertThrows(ServicioSaturadoException.class, difusor::suscribir);
+
+        difusor.cerrar();
+        assertNotNull(difusor.suscribir());
+        assertEquals(1, difusor.getSuscriptores());
+    }
+
+    @Test
+    @DisplayName("Publicar sin suscriptores no debe fallar")
+    void publicarSinSuscriptores() {
+        DifusorSse<String> difusor = new DifusorSse<>(2, 10, 60_000, DifusorSse.Politica.DESCONECTAR, SIN_ESCRITURA);
+
+        difusor.publicar("venta", "v1");
+
+        assertEquals(1, difusor.getPublicados());
+        assertEquals(0, difusor.getDescartados());
+    }
+}
@@ -0,0 +1,183 @@
+package com.example.supermercado_ventas_api;
+
+import com.example.supermercado_ventas_api.models.Producto;
+import com.example.supermercado_ventas_api.models.Sucursal;
+import com.example.supermercado_ventas_api.models.Venta;
+import com.example.supermercado_ventas_api.models.VentaDetalle;
+import com.example.supermercado_ventas_api.repositories.ProductoRepository;
+import com.example.supermercado_ventas_api.repositories.SucursalRepository;
+import com.example.supermercado_ventas_api.repositories.VentaRepository;
+import com.example.supermercado_ventas_api.services.ExportacionVentasService;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@Transactional
+class ExportacionVentasIntegrationTest {
+
+    private static final LocalDate DIA = LocalDate.of(2025, 3, 10);
+
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private ObjectMapper objectMapper;
+    @Autowired
+    private ExportacionVentasService exportacionVentasService;
+    @Autowired
+    private SucursalRepository sucursalRepository;
+    @Autowired
+    private ProductoRepository productoRepository;
+    @Autowired
+    private VentaRepository ventaRepository;
+    @Autowired
+    private EntityManager entityManager;
+
+    private Sucursal sucursal;
+    private Producto pan;
+    private Producto leche;
+
+    @BeforeEach
+    void setup() {
+        sucursal = sucursalRepository.save(Sucursal.builder().nombreSucursal("Sucursal Export").direccion("Calle 1").build());
+        pan = productoRepository.save(Producto.builder()
+                .nombreProducto("Pan \"de molde\", integral").precioProducto(new BigDecimal("1.50")).categoria("Panadería").build());
+        leche = productoRepository.save(Producto.builder()
+                .nombreProducto("Leche").precioProducto(new BigDecimal("0.90")).categoria("Lácteos").build());
+
+        crearVenta(DIA.atTime(9, 0), 2, 1);
+        crearVenta(DIA.plusDays(1).atTime(18, 30), 1, 0);
+        crearVenta(DIA.plusDays(5).atTime(12, 0), 3, 0);
+        // La exportación lee por JDBC: las ventas deben estar en la BD (misma transacción)
+        entityManager.flush();
+    }
+
+    @Test
+    @DisplayName("El CSV debe tener una línea por producto vendido, solo del rango pedido y con los textos escapados")
+    void exportarCsv() throws Exception {
+        List<String> lineas = exportar(ExportacionVentasService.Formato.CSV).lines().toList();
+
+        assertEquals(4, lineas.size());
+        assertTrue(lineas.get(0).startsWith("id_venta,fecha,id_sucursal"));
+        assertTrue(lineas.get(1).endsWith(",\"Pan \"\"de molde\"\", integral\",Panadería,2,1.50,3.00"));
+        assertTrue(lineas.get(2).endsWith(",Leche,Lácteos,1,0.90,0.90"));
+        assertTrue(lineas.get(3).contains("2025-03-11T18:30"));
+    }
+
+    @Test
+    @DisplayName("El NDJSON debe tener un objeto JSON por línea con los datos de la venta")
+    void exportarNdjson() throws Exception {
+        List<String> lineas = exportar(ExportacionVentasService.Formato.NDJSON).lines().toList();
+
+        assertEquals(3, lineas.size());
+        JsonNode primera = objectMapper.readTree(lineas.get(0));
+        assertEquals(sucursal.getId(), primera.get("idSucursal").asLong());
+        assertEquals(pan.getId(), primera.get("idProducto").asLong());
+        assertEquals(2, primera.get("cantidad").asInt());
+        assertTrue(lineas.get(0).contains("\"subtotal\":3.00"));
+        assertEquals("2025-03-10T09:00:00", primera.get("fecha").asText());
+    }
+
+    @Test
+    @DisplayName("GET /api/ventas/export debe comprimir con gzip si el cliente lo acepta")
+    @WithMockUser(username = "admin", authorities = "ADMIN")
+    void exportarPorHttpConGzip() throws Exception {
+        // El cuerpo se escribe en otro hilo, fuera de la transacción del test: la sucursal no tiene ventas visibles
+        MvcResult resultado = mockMvc.perform(get("/api/ventas/export")
+                        .param("formato", "csv")
+                        .param("idSucursal", sucursal.getId().toString())
+                        .header(HttpHeaders.ACCEPT_ENCODING, "gzip, deflate"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        byte[] cuerpo = mockMvc.perform(asyncDispatch(resultado))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.CONTENT_ENCODING, "gzip"))
+                .andExpect(header().string(HttpHeaders.CONTENT_TYPE, "text/csv;charset=UTF-8"))
+                .andReturn().getResponse().getContentAsByteArray();
+
+        try (GZIPInputStream gzip = new GZIPInputStream(new ByteArrayInputStream(cuerpo))) {
+            assertTrue(new String(gzip.readAllBytes(), StandardCharsets.UTF_8).startsWith("id_venta,fecha"));
+        }
+    }
+
+    @Test
+    @DisplayName("GET /api/ventas/export no debe comprimir si el cliente rechaza gzip con q=0")
+    @WithMockUser(username = "admin", authorities = "ADMIN")
+    void exportarPorHttpSinGzipConCalidadCero() throws Exception {
+        MvcResult resultado = mockMvc.perform(get("/api/ventas/export")
+                        .param("idSucursal", sucursal.getId().toString())
+                        .header(HttpHeaders.ACCEPT_ENCODING, "gzip;q=0, *;q=0.5"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        String cuerpo = mockMvc.perform(asyncDispatch(resultado))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist(HttpHeaders.CONTENT_ENCODING))
+                .andReturn().getResponse().getContentAsString(StandardCharsets.UTF_8);
+
+        assertTrue(cuerpo.startsWith("id_venta,fecha"));
+    }
+
+    @Test
+    @DisplayName("GET /api/ventas/export requiere el rol ADMIN")
+    @WithMockUser(username = "cajero", authorities = "CAJERO")
+    void exportarRequiereAdmin() throws Exception {
+        mockMvc.perform(get("/api/ventas/export"))
+                .andExpect(status().isUnauthorized());
+    }
+
+    @Test
+    @DisplayName("Un formato desconocido o un rango invertido deben responder 400 antes de empezar la descarga")
+    @WithMockUser(username = "admin", authorities = "ADMIN")
+    void parametrosInvalidos() throws Exception {
+        mockMvc.perform(get("/api/ventas/export").param("formato", "xml"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/api/ventas/export").param("desde", "2025-03-12").param("hasta", "2025-03-10"))
+                .andExpect(status().isBadRequest());
+    }
+
+    // --- Métodos Auxiliares ---
+    private String exportar(ExportacionVentasService.Formato formato) throws Exception {
+        ByteArrayOutputStream salida = new ByteArrayOutputStream();
+        exportacionVentasService.exportar(formato, DIA, DIA.plusDays(1), sucursal.getId(), salida);
+        return salida.toString(StandardCharsets.UTF_8);
+    }
+
+    private void crearVenta(LocalDateTime fecha, int panes, int leches) {
+        Venta venta = Venta.builder().fecha(fecha).sucursal(sucursal).totalVenta(BigDecimal.ZERO).build();
+        venta.getDetalles().add(VentaDetalle.builder().venta(venta).producto(pan).cantidad(panes).build());
+        if (leches > 0) {
+            venta.getDetalles().add(VentaDetalle.builder().venta(venta).producto(leche).cantidad(leches).build());
+        }
+        ventaRepository.save(venta);
+    }
+}
@@ -0,0 +1,130 @@
+package com.example.supermercado_ventas_api;
+
+import com.example.supermercado_ventas_api.dtos.StockHistoricoDTO;
+import com.example.supermercado_ventas_api.models.MovimientoStock;
+import com.example.supermercado_ventas_api.models.TipoMovimiento;
+import com.example.supermercado_ventas_api.repositories.MovimientoStockRepository;
+import com.example.supermercado_ventas_api.repositories.SnapshotStockRepository;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Clock;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// El libro no tiene claves foráneas: se usa una sucursal inexistente para aislarse del resto de datos
+@SpringBootTest
+@AutoConfigureMockMvc
+@Transactional
+class HistorialStockIntegrationTest {
+
+    private static final Long SUCURSAL = 987_654L;
+    private static final LocalDateTime DIA = LocalDateTime.of(2026, 1, 15, 0, 0);
+
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private MovimientoStockRepository movimientoStockRepository;
+    @Autowired
+    private SnapshotStockRepository snapshotStockRepository;
+
+    @Test
+    @DisplayName("El stock en una fecha debe ser el último snapshot anterior más los movimientos posteriores a su corte")
+    void stockEnUnaFechaConSnapshotYMovimientos() {
+        movimientoStockRepository.insertarLote(List.of(
+                movimiento(TipoMovimiento.ENTRADA, 1L, 100, 10),
+                movimiento(TipoMovimiento.VENTA, 1L, -30, 11),
+                movimiento(TipoMovimiento.ENTRADA, 2L, 5, 11)));
+        assertTrue(snapshotStockRepository.generar(reloj(DIA.withHour(12))) > 0);
+        assertEquals(0, snapshotStockRepository.generar(reloj(DIA.withHour(12).plusMinutes(1))));
+
+        // Escrito después del snapshot pero ocurrido antes (el libro se alimenta de forma asíncrona)
+        movimientoStockRepository.insertarLote(List.of(
+                movimiento(TipoMovimiento.VENTA, 1L, -1, 11),
+                movimiento(TipoMovimiento.VENTA, 1L, -20, 13),
+                movimiento(TipoMovimiento.ANULACION, 1L, 7, 15)));
+
+        assertEquals(List.of(), snapshotStockRepository.stockEn(DIA.withHour(9), SUCURSAL));
+        assertEquals(List.of(stock(1L, 100)), snapshotStockRepository.stockEn(DIA.withHour(10), SUCURSAL));
+        assertEquals(List.of(stock(1L, 69), stock(2L, 5)), snapshotStockRepository.stockEn(DIA.withHour(12).plusMinutes(30), SUCURSAL));
+        assertEquals(List.of(stock(1L, 49), stock(2L, 5)), snapshotStockRepository.stockEn(DIA.withHour(14), SUCURSAL));
+        assertEquals(List.of(stock(1L, 56), stock(2L, 5)), snapshotStockRepository.stockEn(DIA.withHour(16), SUCURSAL));
+    }
+
+    @Test
+    @DisplayName("Un movimiento por debajo del corte con fecha posterior al snapshot no debe perderse")
+    void movimientoBajoElCorteConFechaPosteriorAlSnapshot() {
+        movimientoStockRepository.insertarLote(List.of(
+                movimiento(TipoMovimiento.ENTRADA, 1L, 50, 10),
+                movimiento(TipoMovimiento.VENTA, 1L, -8, 13)));
+        // Reloj del snapshot por detrás de la fecha del segundo movimiento, que aun así queda bajo el corte
+        assertTrue(snapshotStockRepository.generar(reloj(DIA.withHour(12))) > 0);
+
+        assertEquals(List.of(stock(1L, 42)), snapshotStockRepository.stockEn(DIA.withHour(14), SUCURSAL));
+    }
+
+    @Test
+    @DisplayName("Un snapshot posterior debe partir del saldo anterior de los productos movidos y conservar el resto")
+    void snapshotsSucesivosAcumulanSoloLosMovidos() {
+        movimientoStockRepository.insertarLote(List.of(
+                movimiento(TipoMovimiento.ENTRADA, 1L, 30, 8),
+                movimiento(TipoMovimiento.ENTRADA, 2L, 12, 8)));
+        assertTrue(snapshotStockRepository.generar(reloj(DIA.withHour(9))) > 0);
+
+        movimientoStockRepository.insertarLote(List.of(movimiento(TipoMovimiento.VENTA, 1L, -4, 10)));
+        assertTrue(snapshotStockRepository.generar(reloj(DIA.withHour(11))) > 0);
+
+        assertEquals(List.of(stock(1L, 26), stock(2L, 12)), snapshotStockRepository.stockEn(DIA.withHour(12), SUCURSAL));
+    }
+
+    @Test
+    @DisplayName("GET /api/inventarios/historial debe devolver el stock de la sucursal en la fecha pedida")
+    void historialPorHttp() throws Exception {
+        movimientoStockRepository.insertarLote(List.of(
+                movimiento(TipoMovimiento.ENTRADA, 1L, 40, 10),
+                movimiento(TipoMovimiento.VENTA, 1L, -15, 12)));
+
+        mockMvc.perform(get("/api/inventarios/historial")
+                        .param("fecha", "2026-01-15T11:00:00")
+                        .param("sucursalId", SUCURSAL.toString()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].idProducto").value(1))
+                .andExpect(jsonPath("$[0].cantidad").value(40));
+
+        mockMvc.perform(get("/api/inventarios/historial")
+                        .param("fecha", "2026-01-15T09:00:00")
+                        .param("sucursalId", SUCURSAL.toString()))
+                .andExpect(status().isNotFound());
+    }
+
+    // --- Métodos Auxiliares ---
+    private MovimientoStock movimiento(TipoMovimiento tipo, Long idProducto, int cantidad, int hora) {
+        return MovimientoStock.builder()
+                .tipo(tipo)
+                .idSucursal(SUCURSAL)
+                .idProducto(idProducto)
+                .cantidad(cantidad)
+                .fecha(DIA.withHour(hora))
+                .build();
+    }
+
+    private Clock reloj(LocalDateTime momento) {
+        ZoneId zona = ZoneId.systemDefault();
+        return Clock.fixed(momento.atZone(zona).toInstant(), zona);
+    }
+
+    private StockHistoricoDTO stock(Long idProducto, int cantidad) {
+        return new StockHistoricoDTO(SUCURSAL, idProducto, cantidad);
+    }
+}
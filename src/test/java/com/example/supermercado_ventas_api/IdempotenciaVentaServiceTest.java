@@ -0,0 +1,95 @@
+package com.example.supermercado_ventas_api;
+
+import com.example.supermercado_ventas_api.dtos.DetalleRequestDTO;
+import com.example.supermercado_ventas_api.dtos.VentaRequestDTO;
+import com.example.supermercado_ventas_api.dtos.VentaResponseDTO;
+import com.example.supermercado_ventas_api.services.IdempotenciaVentaService;
+import com.example.supermercado_ventas_api.services.VentaService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class IdempotenciaVentaServiceTest {
+
+    @Mock
+    private VentaService ventaService;
+
+    private IdempotenciaVentaService idempotenciaVentaService;
+
+    private final VentaRequestDTO ventaDTO = new VentaRequestDTO(1L, List.of(new DetalleRequestDTO(10L, 2)));
+    private final VentaResponseDTO venta = new VentaResponseDTO(5L, "Centro", LocalDateTime.now(), BigDecimal.TEN, true, List.of());
+
+    @BeforeEach
+    void setup() {
+        idempotenciaVentaService = new IdempotenciaVentaService(ventaService, 100, 24);
+    }
+
+    @Test
+    @DisplayName("Un reintento con la misma clave debe devolver la venta original sin registrarla de nuevo")
+    void reintentoDevuelveVentaOriginal() {
+        when(ventaService.buscarPorClaveIdempotencia("caja-1")).thenReturn(Optional.empty());
+        when(ventaService.registrarVenta(ventaDTO, "caja-1")).thenReturn(venta);
+
+        IdempotenciaVentaService.Resultado primero = idempotenciaVentaService.registrar("caja-1", ventaDTO);
+        IdempotenciaVentaService.Resultado reintento = idempotenciaVentaService.registrar("caja-1", ventaDTO);
+
+        assertFalse(primero.repetida());
+        assertTrue(reintento.repetida());
+        assertSame(venta, reintento.venta());
+        verify(ventaService, times(1)).registrarVenta(any(), anyString());
+        assertEquals(1, idempotenciaVentaService.getAciertosMemoria());
+    }
+
+    @Test
+    @DisplayName("Si la clave no está en memoria debe recuperar la venta desde la BD")
+    void recuperaDesdeBaseDeDatos() {
+        when(ventaService.buscarPorClaveIdempotencia("caja-1")).thenReturn(Optional.of(venta));
+
+        IdempotenciaVentaService.Resultado resultado = idempotenciaVentaService.registrar("caja-1", ventaDTO);
+
+        assertTrue(resultado.repetida());
+        assertSame(venta, resultado.venta());
+        verify(ventaService, never()).registrarVenta(any(), anyString());
+        assertEquals(1, idempotenciaVentaService.getAciertosBaseDatos());
+    }
+
+    @Test
+    @DisplayName("Si un reintento simultáneo gana la carrera debe devolver la venta que se confirmó")
+    void reintentoSimultaneoDevuelveLaVentaGanadora() {
+        when(ventaService.buscarPorClaveIdempotencia("caja-1"))
+                .thenReturn(Optional.empty())
+                .thenReturn(Optional.of(venta));
+        when(ventaService.registrarVenta(ventaDTO, "caja-1"))
+                .thenThrow(new DataIntegrityViolationException("uk_ventas_clave_idempotencia"));
+
+        IdempotenciaVentaService.Resultado resultado = idempotenciaVentaService.registrar("caja-1", ventaDTO);
+
+        assertTrue(resultado.repetida());
+        assertSame(venta, resultado.venta());
+    }
+
+    @Test
+    @DisplayName("Sin clave debe registrar siempre y rechazar claves demasiado largas")
+    void sinClaveYClaveInvalida() {
+        when(ventaService.registrarVenta(ventaDTO)).thenReturn(venta);
+
+        assertFalse(idempotenciaVentaService.registrar(null, ventaDTO).repetida());
+        assertThrows(IllegalArgumentException.class, () -> idempotenciaVentaService.registrar("x".repeat(101), ventaDTO));
+        verify(ventaService, never()).buscarPorClaveIdempotencia(anyString());
+    }
+}
@@ -84,9 +84,38 @@ class InventarioControllerIntegrationTest {
                         .param("sucursalId", s.getId().toString())
                         .contentType(MediaType.APPLICATION_JSON))
                 .andExpect(status().isOk())
-                .andExpect(jsonPath("$").isArray())
-                .andExpect(jsonPath("$[0].nombreProducto").value("P1"))
-                .andExpect(jsonPath("$[0].cantidad").value("100"));
+                .andExpect(jsonPath("$.inventarios").isArray())
+                .andExpect(jsonPath("$.inventarios[0].nombreProducto").value("P1"))
+                .andExpect(jsonPath("$.inventarios[0].cantidad").value("100"));
+    }
+
+    @Test
+    @WithMockUser
+    @DisplayName("Debe paginar el stock de una sucursal por cursor")
+    void paginarInventarioIntegration() throws Exception {
+        Sucursal s = sucursalRepository.save(Sucursal.builder().nombreSucursal("Sucursal Paginada").direccion("Dir").build());
+        for (int i = 1; i <= 3; i++) {
+            Producto p = productoRepository.save(Producto.builder().nombreProducto("P" + i).precioProducto(BigDecimal.ONE).categoria("Cat").build());
+            inventarioRepository.save(Inventario.builder().sucursal(s).producto(p).cantidad(i).build());
+        }
+
+        String respuesta = mockMvc.perform(get("/api/inventarios")
+                        .param("sucursalId", s.getId().toString())
+                        .param("limite", "2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.inventarios.length()").value(2))
+                .andExpect(jsonPath("$.nextCursor").isNotEmpty())
+                .andReturn().getResponse().getContentAsString();
+        String cursor = objectMapper.readTree(respuesta).get("nextCursor").asText();
+
+        mockMvc.perform(get("/api/inventarios")
+                        .param("sucursalId", s.getId().toString())
+                        .param("limite", "2")
+                        .param("cursor", cursor))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.inventarios.length()").value(1))
+                .andExpect(jsonPath("$.inventarios[0].nombreProducto").value("P3"))
+                .andExpect(jsonPath("$.nextCursor").doesNotExist());
     }
 
     @Test
@@ -10,15 +10,18 @@ import org.mockito.junit.jupiter.MockitoExtension;
 import com.example.supermercado_ventas_api.dtos.InventarioResponseDTO;
 import com.example.supermercado_ventas_api.dtos.InventarioUpdateDTO;
 import com.example.supermercado_ventas_api.exceptions.ResourceNotFoundException;
+import com.example.supermercado_ventas_api.events.AjusteStockEvent;
 import com.example.supermercado_ventas_api.models.Inventario;
 import com.example.supermercado_ventas_api.models.Producto;
 import com.example.supermercado_ventas_api.models.Sucursal;
+import com.example.supermercado_ventas_api.models.TipoMovimiento;
 import com.example.supermercado_ventas_api.repositories.InventarioRepository;
 import com.example.supermercado_ventas_api.services.InventarioService;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.springframework.context.ApplicationEventPublisher;
 
 import java.math.BigDecimal;
 import java.util.Optional;
@@ -40,6 +43,9 @@ public class InventarioServiceTest {
     @Mock
     private SucursalRepository sucursalRepository;
 
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
     @InjectMocks
     private InventarioService inventarioService;
 
@@ -52,7 +58,7 @@ public class InventarioServiceTest {
         Sucursal sucursal = new Sucursal(1L, "Norte", "Calle 1");
         Producto producto = new Producto(1L, "Pan", BigDecimal.ONE, "Comida");
 
-        Inventario inventarioExistente = new Inventario(idInventario, sucursal, producto, 10);
+        Inventario inventarioExistente = new Inventario(idInventario, sucursal, producto, 10, null, 0L);
 
         when(inventarioRepository.findById(idInventario)).thenReturn(Optional.of(inventarioExistente));
         when(inventarioRepository.save(any(Inventario.class))).thenReturn(inventarioExistente);
@@ -63,6 +69,8 @@ public class InventarioServiceTest {
         assertEquals(50, resultado.getCantidad()); // Verificamos que devuelve 50
         assertEquals(50, inventarioExistente.getCantidad()); // Verificamos que la entidad cambió
         verify(inventarioRepository).save(inventarioExistente);
+        // El libro de auditoría recibe la variación aplicada (de 10 a 50), no la cantidad final
+        verify(eventPublisher).publishEvent(new AjusteStockEvent(TipoMovimiento.AJUSTE, 1L, 1L, 40));
     }
 
     @Test
@@ -121,27 +129,31 @@ public class InventarioServiceTest {
     @DisplayName("Debe eliminar el inventario si el ID existe")
     void testEliminarInventarioExitoso() {
         Long inventarioId = 1L;
+        Sucursal sucursal = new Sucursal(1L, "Norte", "Calle 1");
+        Producto producto = new Producto(1L, "Pan", BigDecimal.ONE, "Comida");
+        Inventario inventario = new Inventario(inventarioId, sucursal, producto, 10, null, 0L);
         //Simulamos que el ID existe en la BBDD
-        when(inventarioRepository.existsById(inventarioId)).thenReturn(true);
+        when(inventarioRepository.findById(inventarioId)).thenReturn(Optional.of(inventario));
 
         inventarioService.eliminarInventario(inventarioId);
 
-        //Verificamos que se llamó al metodo deleteById una vez
-        verify(inventarioRepository, times(1)).deleteById(inventarioId);
+        //Verificamos que se borró una vez y que el stock restante sale del libro de movimientos
+        verify(inventarioRepository, times(1)).delete(inventario);
+        verify(eventPublisher).publishEvent(new AjusteStockEvent(TipoMovimiento.BAJA, 1L, 1L, -10));
     }
 
     @Test
     @DisplayName("Debe lanzar InventarioNotFoundException al intentar eliminar un inventario")
     void testEliminarInventarioNoEncontrado() {
         Long inventarioId = 1L;
-        when(inventarioRepository.existsById(inventarioId)).thenReturn(false);
+        when(inventarioRepository.findById(inventarioId)).thenReturn(Optional.empty());
 
         assertThrows(com.example.supermercado_ventas_api.exceptions.InventarioNotFoundException.class, () -> {
             inventarioService.eliminarInventario(inventarioId);
         });
 
         //Verificamos que nunca se intentó borrar nada
-        verify(inventarioRepository, never()).deleteById(anyLong());
+        verify(inventarioRepository, never()).delete(any(Inventario.class));
     }
 
 }
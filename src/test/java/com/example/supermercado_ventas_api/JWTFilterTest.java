@@ -0,0 +1,97 @@
+package com.example.supermercado_ventas_api;
+
+import com.example.supermercado_ventas_api.configs.JWTAuthenticationCache;
+import com.example.supermercado_ventas_api.configs.JWTFilter;
+import com.example.supermercado_ventas_api.configs.JWTUtils;
+import com.example.supermercado_ventas_api.models.Rol;
+import com.example.supermercado_ventas_api.models.Usuario;
+import com.example.supermercado_ventas_api.repositories.UsuarioRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.util.Map;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class JWTFilterTest {
+
+    @Mock
+    private UsuarioRepository usuarioRepository;
+
+    private JWTUtils jwtUtils;
+    private JWTAuthenticationCache cache;
+    private JWTFilter filter;
+
+    @BeforeEach
+    void setup() {
+        jwtUtils = spy(new JWTUtils("ClaveDePruebaConMasDe32CaracteresParaHmacSha256!!", 60_000, "principal", Map.of()));
+        cache = new JWTAuthenticationCache(100, 300, 60_000);
+        filter = new JWTFilter(jwtUtils, usuarioRepository, cache, new SimpleMeterRegistry());
+    }
+
+    @AfterEach
+    void limpiarContexto() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    @DisplayName("Debe tomar el rol del claim sin consultar la BD y reutilizar la autenticación cacheada")
+    void rolDesdeClaimYCache() throws Exception {
+        String token = jwtUtils.generateToken("ana", Rol.CAJERO);
+
+        Authentication primera = filtrar(token);
+        Authentication segunda = filtrar(token);
+
+        assertEquals("ana", primera.getName());
+        assertEquals("CAJERO", primera.getAuthorities().iterator().next().getAuthority());
+        assertSame(primera, segunda);
+        verify(jwtUtils, times(1)).parseClaims(token);
+        verifyNoInteractions(usuarioRepository);
+    }
+
+    @Test
+    @DisplayName("Tras un cambio de rol debe descartar la caché y resolver el rol actual en la BD")
+    void invalidacionPorCambioDeRol() throws Exception {
+        String token = jwtUtils.generateToken("ana", Rol.CAJERO);
+        filtrar(token);
+
+        cache.invalidarUsuario("ana");
+        when(usuarioRepository.findByUsername("ana"))
+                .thenReturn(Optional.of(Usuario.builder().username("ana").rol(Rol.ADMIN).build()));
+
+        Authentication auth = filtrar(token);
+
+        assertEquals("ADMIN", auth.getAuthorities().iterator().next().getAuthority());
+        verify(usuarioRepository, times(1)).findByUsername("ana");
+    }
+
+    @Test
+    @DisplayName("No debe autenticar ni cachear un token inválido")
+    void tokenInvalido() throws Exception {
+        assertNull(filtrar("no-es-un-jwt"));
+        assertEquals(0, cache.getTamanio());
+    }
+
+    // --- Métodos Auxiliares ---
+    private Authentication filtrar(String token) throws Exception {
+        SecurityContextHolder.clearContext();
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/ventas");
+        request.addHeader("Authorization", "Bearer " + token);
+        filter.doFilter(request, new MockHttpServletResponse(), new MockFilterChain());
+        return SecurityContextHolder.getContext().getAuthentication();
+    }
+}
@@ -0,0 +1,59 @@
+package com.example.supermercado_ventas_api;
+
+import com.example.supermercado_ventas_api.configs.JWTUtils;
+import com.example.supermercado_ventas_api.models.Rol;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Date;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class JWTUtilsTest {
+
+    private static final String SECRETO_ANTERIOR = "SecretoAnteriorConMasDe32CaracteresParaHmacSha256!";
+    private static final String SECRETO_ACTUAL = "SecretoActualConMasDe32CaracteresParaHmacSha256!!!";
+
+    @Test
+    @DisplayName("Debe aceptar los tokens firmados con una clave anterior tras la rotación")
+    void aceptaTokensDeClaveAnterior() {
+        JWTUtils antes = new JWTUtils(SECRETO_ANTERIOR, 60_000, "2024-01", Map.of());
+        String tokenAntiguo = antes.generateToken("ana", Rol.CAJERO);
+
+        JWTUtils despues = new JWTUtils(SECRETO_ACTUAL, 60_000, "2024-02", Map.of("2024-01", SECRETO_ANTERIOR));
+
+        Claims claims = despues.parseClaims(tokenAntiguo).orElseThrow();
+        assertEquals("ana", claims.getSubject());
+        assertEquals("CAJERO", claims.get(JWTUtils.CLAIM_ROL, String.class));
+        assertTrue(despues.parseClaims(despues.generateToken("luis", Rol.ADMIN)).isPresent());
+    }
+
+    @Test
+    @DisplayName("Debe rechazar los tokens de claves retiradas o desconocidas")
+    void rechazaClavesRetiradas() {
+        String tokenAntiguo = new JWTUtils(SECRETO_ANTERIOR, 60_000, "2024-01", Map.of()).generateToken("ana", Rol.CAJERO);
+
+        JWTUtils sinClaveAnterior = new JWTUtils(SECRETO_ACTUAL, 60_000, "2024-02", Map.of());
+
+        assertTrue(sinClaveAnterior.parseClaims(tokenAntiguo).isEmpty());
+    }
+
+    @Test
+    @DisplayName("Los tokens sin cabecera kid se verifican con la clave actual")
+    void tokensSinKidUsanClaveActual() {
+        String tokenSinKid = Jwts.builder()
+                .subject("ana")
+                .expiration(new Date(System.currentTimeMillis() + 60_000))
+                .signWith(Keys.hmacShaKeyFor(SECRETO_ACTUAL.getBytes(StandardCharsets.UTF_8)))
+                .compact();
+
+        JWTUtils jwtUtils = new JWTUtils(SECRETO_ACTUAL, 60_000, "2024-02", Map.of());
+
+        assertEquals("ana", jwtUtils.getUsernameFromJwtToken(tokenSinKid));
+    }
+}
@@ -0,0 +1,31 @@
+package com.example.supermercado_ventas_api;
+
+import com.example.supermercado_ventas_api.configs.MetricasConfig;
+import com.example.supermercado_ventas_api.services.MetricasVentas;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MetricasConfigTest {
+
+    @Test
+    @DisplayName("Superado el límite de sucursales, las nuevas deben agruparse en 'otras'")
+    void limiteEtiquetasSucursal() {
+        MeterRegistry registry = new SimpleMeterRegistry();
+        registry.config().meterFilter(new MetricasConfig().limiteEtiquetasSucursal(2));
+        MetricasVentas metricas = new MetricasVentas(registry);
+
+        metricas.stockInsuficiente(1L);
+        metricas.stockInsuficiente(2L);
+        metricas.stockInsuficiente(3L);
+        metricas.stockInsuficiente(4L);
+        metricas.stockInsuficiente(1L);
+
+        assertEquals(2, registry.get("ventas.rechazadas.stock").tag("sucursal", "1").counter().count());
+        assertEquals(2, registry.get("ventas.rechazadas.stock").tag("sucursal", "otras").counter().count());
+        assertEquals(3, registry.get("ventas.rechazadas.stock").counters().size());
+    }
+}
@@ -0,0 +1,58 @@
+package com.example.supermercado_ventas_api;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.annotation.Transactional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// En los tests Spring Boot no exporta a Prometheus: las métricas se comprueban en el MeterRegistry
+@SpringBootTest
+@AutoConfigureMockMvc
+@Transactional
+class MetricasIntegrationTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Test
+    @WithMockUser(username = "admin", authorities = "ADMIN")
+    @DisplayName("Consultar el stock debe quedar medido, junto a las métricas propias y las del pool de conexiones")
+    void metricasRegistradas() throws Exception {
+        long consultasPrevias = consultasStock();
+
+        mockMvc.perform(get("/api/inventarios"))
+                .andExpect(status().isOk());
+
+        assertEquals(consultasPrevias + 1, consultasStock());
+        assertNotNull(meterRegistry.find("jwt.filtro").timer());
+        assertNotNull(meterRegistry.find("inventario.reintentos.conflictos").functionCounter());
+        assertNotNull(meterRegistry.find("productos.cache.aciertos").functionCounter());
+        assertNotNull(meterRegistry.find("hikaricp.connections.active").gauge());
+    }
+
+    @Test
+    @WithMockUser(username = "cajero", authorities = "CAJERO")
+    @DisplayName("Un cajero no debe poder leer las métricas")
+    void scrapeSoloAdmin() throws Exception {
+        // CustomAccessDeniedHandler responde 401 cuando falta la autoridad
+        mockMvc.perform(get("/actuator/prometheus"))
+                .andExpect(status().isUnauthorized());
+    }
+
+    // El registro es compartido por todos los tests del contexto
+    private long consultasStock() {
+        var timer = meterRegistry.find("inventario.stock.consultar").tag("resultado", "ok").timer();
+        return timer != null ? timer.count() : 0;
+    }
+}
@@ -4,11 +4,13 @@ import com.example.supermercado_ventas_api.models.Producto;
 import com.example.supermercado_ventas_api.repositories.InventarioRepository;
 import com.example.supermercado_ventas_api.repositories.ProductoRepository;
 import com.example.supermercado_ventas_api.repositories.VentaRepository;
+import com.example.supermercado_ventas_api.services.CatalogoProductosCache;
 import com.example.supermercado_ventas_api.services.ProductoService;
+import com.example.supermercado_ventas_api.services.VersionesCatalogo;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
@@ -30,9 +32,15 @@ class ProductoServiceTest {
     InventarioRepository inventarioRepository;
 
 
-    @InjectMocks
     private ProductoService productoService;
 
+    // Caché real sobre el repositorio simulado, para verificar las lecturas que llegan a la BD
+    @BeforeEach
+    void setup() {
+        productoService = new ProductoService(productoRepository, ventaRepository, inventarioRepository,
+                new CatalogoProductosCache(productoRepository, 100, 10), new VersionesCatalogo());
+    }
+
     @Test
     @DisplayName("Debe encontrar un producto por ID correctamente")
     void testFindByIdExitoso() {
@@ -126,4 +134,17 @@ class ProductoServiceTest {
         verify(productoRepository).save(existente);
 
     }
+
+    @Test
+    @DisplayName("Modificar un producto debe cambiar el ETag del listado")
+    void testUpdateCambiaEtagListado() {
+        Producto existente = Producto.builder().id(1L).nombreProducto("Viejo").precioProducto(BigDecimal.ONE).build();
+        when(productoRepository.findById(1L)).thenReturn(Optional.of(existente));
+        when(productoRepository.save(any(Producto.class))).thenAnswer(i -> i.getArgument(0));
+
+        String etagAnterior = productoService.etagListado();
+        productoService.update(1L, Producto.builder().nombreProducto("Nuevo").precioProducto(BigDecimal.TEN).build());
+
+        assertNotEquals(etagAnterior, productoService.etagListado());
+    }
 }
@@ -0,0 +1,71 @@
+package com.example.supermercado_ventas_api;
+
+import com.example.supermercado_ventas_api.configs.ReintentoOptimistaAspect;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ReintentoOptimistaAspectTest {
+
+    @Mock
+    private ProceedingJoinPoint joinPoint;
+
+    private ReintentoOptimistaAspect aspect;
+
+    @BeforeEach
+    void setup() {
+        aspect = new ReintentoOptimistaAspect();
+        ReflectionTestUtils.setField(aspect, "maxIntentos", 3);
+        ReflectionTestUtils.setField(aspect, "esperaInicialMs", 0L);
+    }
+
+    @Test
+    @DisplayName("Debe reintentar tras un conflicto optimista y devolver el resultado del segundo intento")
+    void reintentaHastaTenerExito() throws Throwable {
+        when(joinPoint.proceed())
+                .thenThrow(new ObjectOptimisticLockingFailureException("Inventario", 1L))
+                .thenReturn("ok");
+
+        Object resultado = aspect.reintentar(joinPoint);
+
+        assertEquals("ok", resultado);
+        verify(joinPoint, times(2)).proceed();
+        assertEquals(1, aspect.getConflictos());
+        assertEquals(1, aspect.getReintentos());
+        assertEquals(0, aspect.getAgotados());
+    }
+
+    @Test
+    @DisplayName("Debe propagar el conflicto al agotar el número máximo de intentos")
+    void propagaAlAgotarIntentos() throws Throwable {
+        when(joinPoint.proceed()).thenThrow(new ObjectOptimisticLockingFailureException("Inventario", 1L));
+
+        assertThrows(ObjectOptimisticLockingFailureException.class, () -> aspect.reintentar(joinPoint));
+
+        verify(joinPoint, times(3)).proceed();
+        assertEquals(3, aspect.getConflictos());
+        assertEquals(2, aspect.getReintentos());
+        assertEquals(1, aspect.getAgotados());
+    }
+
+    @Test
+    @DisplayName("No debe reintentar errores de negocio")
+    void noReintentaOtrasExcepciones() throws Throwable {
+        when(joinPoint.proceed()).thenThrow(new IllegalStateException("Stock insuficiente"));
+
+        assertThrows(IllegalStateException.class, () -> aspect.reintentar(joinPoint));
+
+        verify(joinPoint, times(1)).proceed();
+        assertEquals(0, aspect.getConflictos());
+    }
+}
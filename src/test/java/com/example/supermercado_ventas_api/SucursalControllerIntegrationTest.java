@@ -50,6 +50,17 @@ class SucursalControllerIntegrationTest {
                 .andExpect(jsonPath("$").isArray());
     }
 
+    @Test
+    void obtenerTodasLasSucursales_noModificado() throws Exception {
+        // Con el ETag vigente en If-None-Match el listado no se vuelve a enviar
+        String etag = mockMvc.perform(get("/api/sucursales"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader("ETag");
+
+        mockMvc.perform(get("/api/sucursales").header("If-None-Match", etag))
+                .andExpect(status().isNotModified());
+    }
+
     @Test
     void obtenerSucursalPorId_ok() throws Exception {
         // Se crea una sucursal real para validar el flujo completo POST -> GET by id
@@ -5,6 +5,7 @@ import com.example.supermercado_ventas_api.models.Sucursal;
 import com.example.supermercado_ventas_api.repositories.SucursalRepository;
 import com.example.supermercado_ventas_api.repositories.VentaRepository;
 import com.example.supermercado_ventas_api.services.SucursalService;
+import com.example.supermercado_ventas_api.services.VersionesCatalogo;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -29,6 +30,9 @@ class SucursalServiceTest {
     @Mock
     private VentaRepository ventaRepository;
 
+    @Mock
+    private VersionesCatalogo versionesCatalogo;
+
     @InjectMocks
     private SucursalService sucursalService;
 
@@ -0,0 +1,110 @@
+package com.example.supermercado_ventas_api;
+
+import com.example.supermercado_ventas_api.dtos.DetalleVentaResponseDTO;
+import com.example.supermercado_ventas_api.dtos.ProductoTopVentasDTO;
+import com.example.supermercado_ventas_api.dtos.VentaResponseDTO;
+import com.example.supermercado_ventas_api.events.VentaAnuladaEvent;
+import com.example.supermercado_ventas_api.events.VentaRegistradaEvent;
+import com.example.supermercado_ventas_api.exceptions.SucursalNotFoundException;
+import com.example.supermercado_ventas_api.repositories.SucursalRepository;
+import com.example.supermercado_ventas_api.repositories.VentaRepository;
+import com.example.supermercado_ventas_api.services.TopProductosService;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class TopProductosServiceTest {
+
+    @Mock
+    private VentaRepository ventaRepository;
+    @Mock
+    private SucursalRepository sucursalRepository;
+
+    @InjectMocks
+    private TopProductosService topProductosService;
+
+    @Test
+    @DisplayName("Debe ordenar los productos por cantidad vendida y limitar a K")
+    void rankingGlobalOrdenadoYLimitado() {
+        topProductosService.onVentaRegistrada(venta(1L, LocalDateTime.now(), linea(10L, "Arroz", 3), linea(20L, "Leche", 5)));
+        topProductosService.onVentaRegistrada(venta(2L, LocalDateTime.now(), linea(10L, "Arroz", 4), linea(30L, "Pan", 1)));
+
+        List<ProductoTopVentasDTO> top = topProductosService.obtenerTopProductos(2, "dia", null);
+
+        assertEquals(List.of(new ProductoTopVentasDTO("Arroz", 7L), new ProductoTopVentasDTO("Leche", 5L)), top);
+    }
+
+    @Test
+    @DisplayName("Debe separar el ranking por sucursal y descontar las anulaciones")
+    void rankingPorSucursalConAnulacion() {
+        VentaRegistradaEvent ventaCentro = venta(1L, LocalDateTime.now(), linea(10L, "Arroz", 3));
+        topProductosService.onVentaRegistrada(ventaCentro);
+        topProductosService.onVentaRegistrada(venta(2L, LocalDateTime.now(), linea(20L, "Leche", 2)));
+
+        assertEquals(List.of(new ProductoTopVentasDTO("Arroz", 3L)), topProductosService.obtenerTopProductos(10, "SEMANA", 1L));
+
+        topProductosService.onVentaAnulada(new VentaAnuladaEvent(1L, ventaCentro.venta()));
+
+        assertTrue(topProductosService.obtenerTopProductos(10, "semana", 1L).isEmpty());
+        assertEquals(List.of(new ProductoTopVentasDTO("Leche", 2L)), topProductosService.obtenerTopProductos(10, "semana", null));
+        // La sucursal tiene ranking en memoria: no hace falta validarla contra la BD
+        verify(sucursalRepository, never()).existsById(any());
+    }
+
+    @Test
+    @DisplayName("Las ventas de periodos anteriores no deben contar en la ventana actual")
+    void ventasDePeriodosAnterioresNoCuentan() {
+        topProductosService.onVentaRegistrada(venta(1L, LocalDateTime.now().minusMonths(2), linea(10L, "Arroz", 50)));
+        topProductosService.onVentaRegistrada(venta(1L, LocalDateTime.now(), linea(20L, "Leche", 1)));
+
+        assertEquals(List.of(new ProductoTopVentasDTO("Leche", 1L)), topProductosService.obtenerTopProductos(10, "mes", null));
+    }
+
+    @Test
+    @DisplayName("Debe reconstruir el ranking a partir de las ventas activas en BD")
+    void reconstruirDesdeBaseDeDatos() {
+        LocalDate hoy = LocalDate.now();
+        when(ventaRepository.findCantidadesVendidasPorDiaDesde(any())).thenReturn(List.of(
+                new Object[]{1L, 10L, "Arroz", hoy, 4L},
+                new Object[]{2L, 20L, "Leche", hoy, 9L}));
+
+        topProductosService.reconstruir();
+
+        assertEquals(List.of(new ProductoTopVentasDTO("Leche", 9L), new ProductoTopVentasDTO("Arroz", 4L)),
+                topProductosService.obtenerTopProductos(10, "dia", null));
+    }
+
+    @Test
+    @DisplayName("Debe rechazar ventanas desconocidas y sucursales inexistentes")
+    void validaParametros() {
+        assertThrows(IllegalArgumentException.class, () -> topProductosService.obtenerTopProductos(10, "anio", null));
+
+        when(sucursalRepository.existsById(99L)).thenReturn(false);
+        assertThrows(SucursalNotFoundException.class, () -> topProductosService.obtenerTopProductos(10, "dia", 99L));
+    }
+
+    // --- Métodos Auxiliares ---
+    private VentaRegistradaEvent venta(Long idSucursal, LocalDateTime fecha, DetalleVentaResponseDTO... detalles) {
+        return new VentaRegistradaEvent(idSucursal,
+                new VentaResponseDTO(1L, "Sucursal", fecha, BigDecimal.TEN, true, List.of(detalles)));
+    }
+
+    private DetalleVentaResponseDTO linea(Long idProducto, String nombre, int cantidad) {
+        return new DetalleVentaResponseDTO(idProducto, nombre, "Categoria", cantidad, BigDecimal.ONE, BigDecimal.valueOf(cantidad));
+    }
+}
@@ -0,0 +1,107 @@
+package com.example.supermercado_ventas_api;
+
+import com.example.supermercado_ventas_api.models.Producto;
+import com.example.supermercado_ventas_api.models.Sucursal;
+import com.example.supermercado_ventas_api.models.Venta;
+import com.example.supermercado_ventas_api.models.VentaDetalle;
+import com.example.supermercado_ventas_api.repositories.ProductoRepository;
+import com.example.supermercado_ventas_api.repositories.SucursalRepository;
+import com.example.supermercado_ventas_api.repositories.VentaRepository;
+import jakarta.persistence.EntityManager;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Comprueba que, con IDs de secuencia pooled y hibernate.jdbc.batch_size, persistir ventas
+ * se traduce en unas pocas sentencias agrupadas en lugar de un INSERT por fila.
+ */
+@DataJpaTest(properties = {
+        "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.properties.hibernate.generate_statistics=true"
+})
+class VentaBatchInsertTest {
+
+    // Reservar bloques de IDs de ventas y de detalles (el optimizador pooled lee dos veces la
+    // secuencia en su primer uso) y un INSERT en lote por tabla; sin lotes serían más de 30
+    private static final long SENTENCIAS_MAXIMAS = 6;
+
+    @Autowired
+    private EntityManager entityManager;
+    @Autowired
+    private VentaRepository ventaRepository;
+    @Autowired
+    private SucursalRepository sucursalRepository;
+    @Autowired
+    private ProductoRepository productoRepository;
+
+    private Sucursal sucursal;
+    private List<Producto> productos;
+    private Statistics estadisticas;
+
+    @BeforeEach
+    void setup() {
+        sucursal = sucursalRepository.save(Sucursal.builder().nombreSucursal("Centro").direccion("Calle 1").build());
+        List<Producto> nuevos = new ArrayList<>();
+        for (int i = 0; i < 30; i++) {
+            nuevos.add(Producto.builder().nombreProducto("Producto " + i).precioProducto(BigDecimal.ONE).categoria("General").build());
+        }
+        productos = productoRepository.saveAll(nuevos);
+        entityManager.flush();
+
+        estadisticas = entityManager.getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+        estadisticas.clear();
+    }
+
+    @Test
+    @DisplayName("Una venta con 30 líneas debe persistirse con un puñado de sentencias en lote")
+    void ventaConTreintaLineasSeAgrupa() {
+        ventaRepository.save(venta(30));
+        entityManager.flush();
+
+        assertEquals(31, estadisticas.getEntityInsertCount());
+        assertTrue(estadisticas.getPrepareStatementCount() <= SENTENCIAS_MAXIMAS,
+                "Sentencias preparadas: " + estadisticas.getPrepareStatementCount());
+    }
+
+    @Test
+    @DisplayName("Varias ventas guardadas juntas deben compartir los mismos lotes de INSERT")
+    void variasVentasCompartenLotes() {
+        List<Venta> ventas = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            ventas.add(venta(3));
+        }
+
+        ventaRepository.saveAll(ventas);
+        entityManager.flush();
+
+        assertEquals(40, estadisticas.getEntityInsertCount());
+        assertTrue(estadisticas.getPrepareStatementCount() <= SENTENCIAS_MAXIMAS,
+                "Sentencias preparadas: " + estadisticas.getPrepareStatementCount());
+        assertTrue(ventas.stream().allMatch(v -> v.getId() != null));
+    }
+
+    // --- Métodos Auxiliares ---
+    private Venta venta(int lineas) {
+        Venta venta = Venta.builder()
+                .sucursal(sucursal)
+                .fecha(LocalDateTime.now())
+                .totalVenta(BigDecimal.valueOf(lineas))
+                .build();
+        for (int i = 0; i < lineas; i++) {
+            venta.getDetalles().add(VentaDetalle.builder().venta(venta).producto(productos.get(i)).cantidad(1).build());
+        }
+        return venta;
+    }
+}
@@ -1,6 +1,8 @@
 package com.example.supermercado_ventas_api;
 
 import com.example.supermercado_ventas_api.dtos.DetalleRequestDTO;
+import com.example.supermercado_ventas_api.dtos.VentaLoteItemDTO;
+import com.example.supermercado_ventas_api.dtos.VentaLoteRequestDTO;
 import com.example.supermercado_ventas_api.dtos.VentaRequestDTO;
 import com.example.supermercado_ventas_api.models.Inventario;
 import com.example.supermercado_ventas_api.models.Producto;
@@ -12,6 +14,7 @@ import com.example.supermercado_ventas_api.repositories.SucursalRepository;
 import com.example.supermercado_ventas_api.repositories.VentaRepository;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManager;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
@@ -28,8 +31,10 @@ import java.util.ArrayList;
 import java.util.List;
 
 import static org.hamcrest.Matchers.hasSize;
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
@@ -52,6 +57,8 @@ class VentaControllerIntegrationTest {
     private SucursalRepository sucursalRepository;
     @Autowired
     private VentaRepository ventaRepository;
+    @Autowired
+    private EntityManager entityManager;
 
     private Sucursal sucursalDefault;
     private Producto productoDefault;
@@ -164,8 +171,152 @@ class VentaControllerIntegrationTest {
                         .param("idSucursal", String.valueOf(sucursalDefault.getId()))
                         .contentType(MediaType.APPLICATION_JSON))
                 .andExpect(status().isOk())
-                .andExpect(jsonPath("$", hasSize(1)))
-                .andExpect(jsonPath("$[0].total").value(3.00));
+                .andExpect(jsonPath("$.ventas", hasSize(1)))
+                .andExpect(jsonPath("$.ventas[0].total").value(3.00))
+                .andExpect(jsonPath("$.nextCursor").doesNotExist());
+    }
+
+    /**
+     * Verifica la paginación por cursor: la primera página devuelve un cursor
+     * y al enviarlo se obtienen las ventas restantes, sin repetir ninguna.
+     */
+    @Test
+    @DisplayName("GET /api/ventas - Debería paginar ventas usando el cursor")
+    @WithMockUser(username = "admin", authorities = "ADMIN")
+    void testBuscarVentasPaginadas() throws Exception {
+        // Arrange: Registrar tres ventas en la misma sucursal
+        crearInventario(sucursalDefault, productoDefault, 10);
+        for (int i = 1; i <= 3; i++) {
+            VentaRequestDTO ventaRequest = new VentaRequestDTO(sucursalDefault.getId(),
+                    List.of(new DetalleRequestDTO(productoDefault.getId(), i)));
+            mockMvc.perform(post("/api/ventas")
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(objectMapper.writeValueAsString(ventaRequest)))
+                    .andExpect(status().isCreated());
+        }
+
+        // Act: Primera página de 2 elementos
+        String primeraPagina = mockMvc.perform(get("/api/ventas")
+                        .param("idSucursal", String.valueOf(sucursalDefault.getId()))
+                        .param("limite", "2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.ventas", hasSize(2)))
+                .andExpect(jsonPath("$.ventas[0].detalles", hasSize(1)))
+                .andExpect(jsonPath("$.nextCursor").isString())
+                .andReturn().getResponse().getContentAsString();
+
+        String cursor = objectMapper.readTree(primeraPagina).get("nextCursor").asText();
+
+        // Assert: La segunda página contiene la venta restante y no hay más páginas
+        mockMvc.perform(get("/api/ventas")
+                        .param("idSucursal", String.valueOf(sucursalDefault.getId()))
+                        .param("limite", "2")
+                        .param("cursor", cursor))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.ventas", hasSize(1)))
+                .andExpect(jsonPath("$.nextCursor").doesNotExist());
+    }
+
+    /**
+     * Verifica que reintentar una venta con la misma cabecera Idempotency-Key
+     * devuelva la venta original sin registrarla ni descontar stock de nuevo.
+     */
+    @Test
+    @DisplayName("POST /api/ventas - Un reintento con Idempotency-Key no debe duplicar la venta")
+    @WithMockUser(username = "cajero", authorities = "CAJERO")
+    void testRegistrarVentaIdempotente() throws Exception {
+        // Arrange: Stock suficiente y una venta de 4 unidades
+        Inventario inventario = crearInventario(sucursalDefault, productoDefault, 10);
+        String venta = objectMapper.writeValueAsString(new VentaRequestDTO(sucursalDefault.getId(),
+                List.of(new DetalleRequestDTO(productoDefault.getId(), 4))));
+
+        // Act: Primer envío y reintento con la misma clave
+        String original = mockMvc.perform(post("/api/ventas")
+                        .header("Idempotency-Key", "caja7-000123")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(venta))
+                .andExpect(status().isCreated())
+                .andExpect(header().doesNotExist("Idempotent-Replayed"))
+                .andReturn().getResponse().getContentAsString();
+
+        Long idVenta = objectMapper.readTree(original).get("id").asLong();
+
+        // Assert: El reintento devuelve la misma venta y el stock solo se descontó una vez
+        mockMvc.perform(post("/api/ventas")
+                        .header("Idempotency-Key", "caja7-000123")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(venta))
+                .andExpect(status().isCreated())
+                .andExpect(header().string("Idempotent-Replayed", "true"))
+                .andExpect(jsonPath("$.id").value(idVenta));
+
+        // El descuento de stock es un UPDATE JDBC: se descarta la entidad en caché para releerla
+        entityManager.clear();
+        assertEquals(6, inventarioRepository.findById(inventario.getId()).orElseThrow().getCantidad());
+    }
+
+    /**
+     * Verifica el registro en lote: las ventas válidas se registran, las claves repetidas
+     * se informan como duplicadas y las ventas sin stock o inválidas se rechazan sin abortar el lote.
+     */
+    @Test
+    @DisplayName("POST /api/ventas/lote - Debería registrar el lote informando el resultado de cada venta")
+    @WithMockUser(username = "cajero", authorities = "CAJERO")
+    void testRegistrarLote() throws Exception {
+        // Arrange: Stock para una sola venta de 3 unidades
+        Inventario inventario = crearInventario(sucursalDefault, productoDefault, 5);
+
+        VentaRequestDTO tresUnidades = new VentaRequestDTO(sucursalDefault.getId(),
+                List.of(new DetalleRequestDTO(productoDefault.getId(), 3)));
+        VentaLoteRequestDTO lote = new VentaLoteRequestDTO(List.of(
+                new VentaLoteItemDTO("caja1-0001", tresUnidades),
+                new VentaLoteItemDTO("caja1-0001", tresUnidades),
+                new VentaLoteItemDTO("caja1-0002", tresUnidades),
+                new VentaLoteItemDTO("caja1-0003", new VentaRequestDTO(sucursalDefault.getId(), List.of()))));
+
+        // Act & Assert: Resultado por venta en el orden recibido
+        String respuesta = mockMvc.perform(post("/api/ventas/lote")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(lote)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.registradas").value(1))
+                .andExpect(jsonPath("$.duplicadas").value(1))
+                .andExpect(jsonPath("$.rechazadas").value(2))
+                .andExpect(jsonPath("$.resultados[0].estado").value("REGISTRADA"))
+                .andExpect(jsonPath("$.resultados[1].estado").value("DUPLICADA"))
+                .andExpect(jsonPath("$.resultados[2].estado").value("RECHAZADA"))
+                .andExpect(jsonPath("$.resultados[2].mensaje").value("Stock insuficiente para 'Producto Test'. Disponible: 2, solicitado: 3"))
+                .andExpect(jsonPath("$.resultados[3].estado").value("RECHAZADA"))
+                .andReturn().getResponse().getContentAsString();
+
+        JsonNode resultados = objectMapper.readTree(respuesta).get("resultados");
+        Long idVenta = resultados.get(0).get("idVenta").asLong();
+        assertEquals(idVenta, resultados.get(1).get("idVenta").asLong());
+        assertEquals(2, inventarioRepository.findById(inventario.getId()).orElseThrow().getCantidad());
+
+        // Assert: Reenviar la misma venta no la registra de nuevo
+        mockMvc.perform(post("/api/ventas/lote")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new VentaLoteRequestDTO(
+                                List.of(new VentaLoteItemDTO("caja1-0001", tresUnidades))))))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.duplicadas").value(1))
+                .andExpect(jsonPath("$.resultados[0].idVenta").value(idVenta));
+        assertEquals(1, ventaRepository.findAll().stream().filter(v -> "caja1-0001".equals(v.getClaveIdempotencia())).count());
+    }
+
+    /**
+     * Verifica que el flujo SSE, que mantiene la conexión abierta, no quede abierto
+     * a cualquier usuario como el resto de consultas GET.
+     */
+    @Test
+    @DisplayName("GET /api/ventas/stream - Requiere rol ADMIN o CAJERO")
+    @WithMockUser(username = "invitado", authorities = "INVITADO")
+    void testStreamVentasRequiereRol() throws Exception {
+        mockMvc.perform(get("/api/ventas/stream").accept(MediaType.TEXT_EVENT_STREAM))
+                .andExpect(status().isUnauthorized());
+        mockMvc.perform(get("/api/inventarios/alertas").accept(MediaType.TEXT_EVENT_STREAM))
+                .andExpect(status().isUnauthorized());
     }
 
     /**
@@ -205,8 +356,8 @@ class VentaControllerIntegrationTest {
     }
 
     // --- Métodos Auxiliares ---
-    private void crearInventario(Sucursal s, Producto p, Integer cantidad) {
-        inventarioRepository.save(Inventario.builder()
+    private Inventario crearInventario(Sucursal s, Producto p, Integer cantidad) {
+        return inventarioRepository.save(Inventario.builder()
                 .sucursal(s)
                 .producto(p)
                 .cantidad(cantidad)
@@ -0,0 +1,118 @@
+package com.example.supermercado_ventas_api;
+
+import com.example.supermercado_ventas_api.models.Sucursal;
+import com.example.supermercado_ventas_api.models.VentaDiaria;
+import com.example.supermercado_ventas_api.repositories.SucursalRepository;
+import com.example.supermercado_ventas_api.repositories.VentaDiariaRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// H2 en modo MySQL para admitir INSERT ... ON DUPLICATE KEY UPDATE
+@DataJpaTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:ventas_diarias;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1",
+        "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect"})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+class VentaDiariaRepositoryTest {
+
+    private static final LocalDate LUNES = LocalDate.of(2026, 1, 5);
+
+    @Autowired
+    private VentaDiariaRepository ventaDiariaRepository;
+    @Autowired
+    private SucursalRepository sucursalRepository;
+
+    private Sucursal centro;
+    private Sucursal norte;
+
+    @BeforeEach
+    void setup() {
+        centro = sucursalRepository.save(Sucursal.builder().nombreSucursal("Centro").direccion("D1").build());
+        norte = sucursalRepository.save(Sucursal.builder().nombreSucursal("Norte").direccion("D2").build());
+    }
+
+    @Test
+    @DisplayName("Debe crear la fila del día con la primera venta y acumular las siguientes")
+    void acumularCreaYSuma() {
+        ventaDiariaRepository.acumular(centro.getId(), LUNES, new BigDecimal("10.00"), 1);
+        ventaDiariaRepository.acumular(centro.getId(), LUNES, new BigDecimal("5.50"), 1);
+
+        List<VentaDiaria> filas = ventaDiariaRepository.findAll();
+        assertEquals(1, filas.size());
+        assertEquals(0, new BigDecimal("15.50").compareTo(filas.get(0).getTotalVentas()));
+        assertEquals(2L, filas.get(0).getNumeroVentas());
+    }
+
+    @Test
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    @DisplayName("Varias cajas con la primera venta del día a la vez deben acumular en una sola fila sin errores")
+    void primeraVentaDelDiaConcurrente() throws Exception {
+        // Sin transacción de test: cada acumulación se confirma por su cuenta, como en cajas distintas
+        int cajas = 8;
+        Sucursal sur = sucursalRepository.save(Sucursal.builder().nombreSucursal("Sur").direccion("D3").build());
+        ExecutorService executor = Executors.newFixedThreadPool(cajas);
+        try {
+            CountDownLatch salida = new CountDownLatch(1);
+            List<Future<?>> ventas = new ArrayList<>();
+            for (int i = 0; i < cajas; i++) {
+                ventas.add(executor.submit(() -> {
+                    salida.await();
+                    ventaDiariaRepository.acumular(sur.getId(), LUNES, new BigDecimal("2.50"), 1);
+                    return null;
+                }));
+            }
+            salida.countDown();
+            for (Future<?> venta : ventas) {
+                venta.get();
+            }
+
+            List<VentaDiaria> filas = ventaDiariaRepository.findAll().stream()
+                    .filter(f -> f.getSucursal().getId().equals(sur.getId()))
+                    .toList();
+            assertEquals(1, filas.size());
+            assertEquals(0, new BigDecimal("20.00").compareTo(filas.get(0).getTotalVentas()));
+            assertEquals((long) cajas, filas.get(0).getNumeroVentas());
+        } finally {
+            executor.shutdown();
+            ventaDiariaRepository.deleteAll();
+            sucursalRepository.deleteAll();
+        }
+    }
+
+    @Test
+    @DisplayName("Debe agregar por día entre sucursales y omitir los días sin ventas activas")
+    void resumenDiarioAgregaYFiltra() {
+        ventaDiariaRepository.acumular(centro.getId(), LUNES, new BigDecimal("10.00"), 1);
+        ventaDiariaRepository.acumular(norte.getId(), LUNES, new BigDecimal("4.00"), 1);
+        // Martes: una venta anulada deja el día a cero
+        ventaDiariaRepository.acumular(centro.getId(), LUNES.plusDays(1), new BigDecimal("7.00"), 1);
+        ventaDiariaRepository.acumular(centro.getId(), LUNES.plusDays(1), new BigDecimal("-7.00"), -1);
+        ventaDiariaRepository.acumular(norte.getId(), LUNES.plusDays(2), new BigDecimal("3.00"), 1);
+
+        List<Object[]> todas = ventaDiariaRepository.findResumenDiario(null, null, null);
+        assertEquals(2, todas.size());
+        assertEquals(LUNES, todas.get(0)[0]);
+        assertEquals(0, new BigDecimal("14.00").compareTo((BigDecimal) todas.get(0)[1]));
+        assertEquals(2L, ((Number) todas.get(0)[2]).longValue());
+
+        List<Object[]> norteHastaMartes = ventaDiariaRepository.findResumenDiario(norte.getId(), LUNES, LUNES.plusDays(1));
+        assertEquals(1, norteHastaMartes.size());
+        assertEquals(0, new BigDecimal("4.00").compareTo((BigDecimal) norteHastaMartes.get(0)[1]));
+    }
+}
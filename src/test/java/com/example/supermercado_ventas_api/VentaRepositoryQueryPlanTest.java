@@ -0,0 +1,178 @@
+package com.example.supermercado_ventas_api;
+
+import com.example.supermercado_ventas_api.models.Producto;
+import com.example.supermercado_ventas_api.models.Sucursal;
+import com.example.supermercado_ventas_api.models.Venta;
+import com.example.supermercado_ventas_api.models.VentaDetalle;
+import com.example.supermercado_ventas_api.repositories.ProductoRepository;
+import com.example.supermercado_ventas_api.repositories.SucursalRepository;
+import com.example.supermercado_ventas_api.repositories.VentaRepository;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import net.ttddyy.dsproxy.QueryInfo;
+import net.ttddyy.dsproxy.support.ProxyDataSourceBuilder;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.PageRequest;
+
+import javax.sql.DataSource;
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Pruebas de regresión del plan de ejecución sobre una base de datos embebida (H2).
+ * Las consultas del repositorio se capturan tal como las genera Hibernate (con datasource-proxy)
+ * y se explican con los parámetros sustituidos por literales, igual que hace el driver de MySQL
+ * con sentencias preparadas en cliente, para que el optimizador pueda simplificar los filtros opcionales.
+ */
+@DataJpaTest(properties = "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect")
+@Import(VentaRepositoryQueryPlanTest.CapturaSql.class)
+class VentaRepositoryQueryPlanTest {
+
+    private static final LocalDateTime DIA = LocalDate.of(2026, 1, 1).atStartOfDay();
+    private static final DateTimeFormatter FORMATO_TIMESTAMP = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+
+    // Última sentencia sobre ventas ejecutada por Hibernate, con sus parámetros en orden
+    private static final AtomicReference<QueryInfo> ULTIMA_CONSULTA = new AtomicReference<>();
+
+    @TestConfiguration
+    static class CapturaSql {
+
+        @Bean
+        static BeanPostProcessor capturaSqlPostProcessor() {
+            return new BeanPostProcessor() {
+                @Override
+                public Object postProcessAfterInitialization(Object bean, String beanName) {
+                    if (bean instanceof DataSource dataSource) {
+                        return ProxyDataSourceBuilder.create(dataSource)
+                                .beforeQuery((execInfo, consultas) -> consultas.stream()
+                                        .filter(c -> c.getQuery().toLowerCase(Locale.ROOT).contains("from ventas"))
+                                        .forEach(ULTIMA_CONSULTA::set))
+                                .build();
+                    }
+                    return bean;
+                }
+            };
+        }
+    }
+
+    @Autowired
+    private EntityManager entityManager;
+    @Autowired
+    private VentaRepository ventaRepository;
+    @Autowired
+    private SucursalRepository sucursalRepository;
+    @Autowired
+    private ProductoRepository productoRepository;
+
+    @Test
+    @DisplayName("El filtro por sucursal y rango de fecha debe usar idx_ventas_sucursal_fecha")
+    void filtroSucursalYFechaUsaIndiceCompuesto() {
+        ventaRepository.findIdsByFiltrosAvanzados(1L, DIA, DIA.plusDays(1), false, null, null, PageRequest.of(0, 10));
+
+        String plan = explain(consultaGenerada());
+
+        assertTrue(plan.contains("IDX_VENTAS_SUCURSAL_FECHA"), plan);
+        assertTrue(plan.contains("FECHA >="), "El rango de fecha debe resolverse en el índice: " + plan);
+    }
+
+    @Test
+    @DisplayName("El filtro de ventas activas por rango de fecha debe usar idx_ventas_activa_fecha")
+    void filtroActivasYFechaUsaIndiceCompuesto() {
+        ventaRepository.findIdsByFiltrosAvanzados(null, DIA, DIA.plusDays(1), true, null, null, PageRequest.of(0, 10));
+
+        String plan = explain(consultaGenerada());
+
+        assertTrue(plan.contains("IDX_VENTAS_ACTIVA_FECHA"), plan);
+    }
+
+    @Test
+    @DisplayName("Con CAST sobre la fecha el índice solo se aprovecha por sucursal, no por fecha")
+    void castSobreFechaNoEsSargable() {
+        String plan = explain("SELECT v.id FROM ventas v WHERE v.sucursal_id = 1 AND CAST(v.fecha AS DATE) = DATE '2026-01-01'");
+
+        assertFalse(plan.contains("FECHA >="), plan);
+    }
+
+    @Test
+    @DisplayName("Las búsquedas por producto deben usar los índices de detalle e inventario")
+    void busquedasPorProductoUsanIndice() {
+        assertTrue(explain("SELECT d.id FROM venta_detalles d WHERE d.producto_id = 1").contains("IDX_VENTA_DETALLES_PRODUCTO"));
+        assertTrue(explain("SELECT i.id FROM inventario i WHERE i.id_producto = 1").contains("IDX_INVENTARIO_PRODUCTO"));
+    }
+
+    @Test
+    @DisplayName("El rango semiabierto incluye todo el día y excluye la medianoche siguiente")
+    void rangoSemiabiertoRespetaLimites() {
+        Sucursal sucursal = sucursalRepository.save(Sucursal.builder().nombreSucursal("S1").direccion("D1").build());
+        Producto producto = productoRepository.save(Producto.builder().nombreProducto("P1").precioProducto(BigDecimal.ONE).categoria("C1").build());
+        LocalDate dia = LocalDate.of(2026, 1, 1);
+
+        Venta inicio = guardarVenta(sucursal, producto, dia.atStartOfDay());
+        Venta fin = guardarVenta(sucursal, producto, dia.atTime(23, 59, 59, 999_999_000));
+        guardarVenta(sucursal, producto, dia.plusDays(1).atStartOfDay());
+        guardarVenta(sucursal, producto, dia.minusDays(1).atTime(23, 59, 59));
+
+        List<Long> ids = ventaRepository.findIdsByFiltrosAvanzados(sucursal.getId(),
+                dia.atStartOfDay(), dia.plusDays(1).atStartOfDay(), false, null, null, PageRequest.of(0, 10));
+
+        assertEquals(List.of(fin.getId(), inicio.getId()), ids);
+    }
+
+    private Venta guardarVenta(Sucursal sucursal, Producto producto, LocalDateTime fecha) {
+        Venta venta = Venta.builder()
+                .sucursal(sucursal)
+                .fecha(fecha)
+                .totalVenta(BigDecimal.ONE)
+                .build();
+        venta.getDetalles().add(VentaDetalle.builder().venta(venta).producto(producto).cantidad(1).build());
+        return ventaRepository.save(venta);
+    }
+
+    // SQL de la última consulta sobre ventas con cada parámetro sustituido por su literal
+    private String consultaGenerada() {
+        QueryInfo consulta = ULTIMA_CONSULTA.get();
+        assertNotNull(consulta, "Hibernate no ejecutó ninguna consulta sobre ventas");
+        List<Object> valores = consulta.getParametersList().get(0).stream()
+                .sorted(Comparator.comparingInt(p -> (Integer) p.getArgs()[0]))
+                // En setNull el segundo argumento es el tipo SQL, no el valor
+                .map(p -> p.getMethod().getName().equals("setNull") ? null : p.getArgs()[1])
+                .toList();
+
+        StringBuilder sql = new StringBuilder();
+        int parametro = 0;
+        for (char c : consulta.getQuery().toCharArray()) {
+            sql.append(c == '?' ? literal(valores.get(parametro++)) : String.valueOf(c));
+        }
+        return sql.toString();
+    }
+
+    private String literal(Object valor) {
+        return switch (valor) {
+            case null -> "NULL";
+            case Number numero -> numero.toString();
+            case Boolean logico -> logico.toString().toUpperCase(Locale.ROOT);
+            case Timestamp momento -> "TIMESTAMP '" + momento.toLocalDateTime().format(FORMATO_TIMESTAMP) + "'";
+            case LocalDateTime momento -> "TIMESTAMP '" + momento.format(FORMATO_TIMESTAMP) + "'";
+            default -> "'" + valor + "'";
+        };
+    }
+
+    private String explain(String sql) {
+        return entityManager.createNativeQuery("EXPLAIN " + sql).getSingleResult().toString().toUpperCase();
+    }
+}
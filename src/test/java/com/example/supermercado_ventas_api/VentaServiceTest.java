@@ -3,14 +3,18 @@ package com.example.supermercado_ventas_api;
 import com.example.supermercado_ventas_api.dtos.DetalleRequestDTO;
 import com.example.supermercado_ventas_api.dtos.VentaRequestDTO;
 import com.example.supermercado_ventas_api.dtos.VentaResponseDTO;
+import com.example.supermercado_ventas_api.events.VentaAnuladaEvent;
+import com.example.supermercado_ventas_api.events.VentaRegistradaEvent;
 import com.example.supermercado_ventas_api.models.Inventario;
 import com.example.supermercado_ventas_api.models.Producto;
 import com.example.supermercado_ventas_api.models.Sucursal;
 import com.example.supermercado_ventas_api.models.Venta;
 import com.example.supermercado_ventas_api.repositories.InventarioRepository;
-import com.example.supermercado_ventas_api.repositories.ProductoRepository;
 import com.example.supermercado_ventas_api.repositories.SucursalRepository;
+import com.example.supermercado_ventas_api.repositories.VentaDiariaRepository;
 import com.example.supermercado_ventas_api.repositories.VentaRepository;
+import com.example.supermercado_ventas_api.services.CatalogoProductosCache;
+import com.example.supermercado_ventas_api.services.MetricasVentas;
 import com.example.supermercado_ventas_api.services.VentaService;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
@@ -18,14 +22,22 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
 
 import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyIterable;
 import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -33,11 +45,17 @@ class VentaServiceTest {
     @Mock
     private VentaRepository ventaRepository;
     @Mock
-    private ProductoRepository productoRepository;
+    private CatalogoProductosCache catalogoProductos;
     @Mock
     private SucursalRepository sucursalRepository;
     @Mock
     private InventarioRepository inventarioRepository;
+    @Mock
+    private VentaDiariaRepository ventaDiariaRepository;
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+    @Mock
+    private MetricasVentas metricasVentas;
 
     @InjectMocks
     private VentaService ventaService;
@@ -51,20 +69,14 @@ class VentaServiceTest {
         Sucursal sucursalMock = Sucursal.builder().id(sucursalId).nombreSucursal("Sucursal 1").build();
         Producto productoMock = Producto.builder().id(productoId).nombreProducto("Producto 1").precioProducto(BigDecimal.TEN).build();
 
-        Inventario inventarioMock = Inventario.builder()
-                .id(1L)
-                .sucursal(sucursalMock)
-                .producto(productoMock)
-                .cantidad(10)
-                .build();
-
         VentaRequestDTO requestDTO = new VentaRequestDTO(
                 sucursalId,
                 List.of(new DetalleRequestDTO(productoId, 2)));
 
         when(sucursalRepository.findById(sucursalId)).thenReturn(Optional.of(sucursalMock));
-        when(productoRepository.findAllById(anyList())).thenReturn(List.of(productoMock));
-        when(inventarioRepository.findBySucursalAndProducto(sucursalMock, productoMock)).thenReturn(Optional.of(inventarioMock));
+        when(catalogoProductos.buscarPorIds(anyList())).thenReturn(Map.of(productoId, productoMock));
+        // El UPDATE condicional afecta a una fila: había stock suficiente
+        when(inventarioRepository.descontarStock(sucursalId, Map.of(productoId, 2))).thenReturn(new int[]{1});
 
         when(ventaRepository.save(any(Venta.class))).thenAnswer(i -> {
             Venta venta = i.getArgument(0);
@@ -74,13 +86,43 @@ class VentaServiceTest {
 
         VentaResponseDTO resultado = ventaService.registrarVenta(requestDTO);
 
-        // Verifica cálculo del total y descuento correcto del stock
+        // Verifica cálculo del total y descuento del stock en una sola operación
         assertNotNull(resultado);
         assertEquals(0, new BigDecimal("20.0").compareTo(resultado.total()), "El total debe ser 20.0");
-        assertEquals(8, inventarioMock.getCantidad(), "El stock debe quedar en 8");
 
         verify(ventaRepository, times(1)).save(any(Venta.class));
-        verify(inventarioRepository, times(1)).save(inventarioMock);
+        verify(inventarioRepository, times(1)).descontarStock(sucursalId, Map.of(productoId, 2));
+        verify(inventarioRepository, never()).findMapaBySucursalIdAndProductoIds(any(), any());
+        verify(inventarioRepository, never()).save(any(Inventario.class));
+        verify(ventaDiariaRepository).acumular(eq(sucursalId), any(LocalDate.class), eq(resultado.total()), eq(1L));
+        verify(eventPublisher).publishEvent(new VentaRegistradaEvent(sucursalId, resultado));
+    }
+
+    @Test
+    @DisplayName("Debe descontar el stock en orden de producto, no en el orden del carrito")
+    void testRegistrarVentaDescuentaEnOrdenDeProducto() {
+        Long sucursalId = 1L;
+        Sucursal sucursalMock = Sucursal.builder().id(sucursalId).nombreSucursal("Sucursal 1").build();
+        Producto arroz = Producto.builder().id(3L).nombreProducto("Arroz").precioProducto(BigDecimal.ONE).build();
+        Producto leche = Producto.builder().id(1L).nombreProducto("Leche").precioProducto(BigDecimal.ONE).build();
+
+        VentaRequestDTO requestDTO = new VentaRequestDTO(sucursalId,
+                List.of(new DetalleRequestDTO(3L, 1), new DetalleRequestDTO(1L, 2), new DetalleRequestDTO(3L, 1)));
+
+        when(sucursalRepository.findById(sucursalId)).thenReturn(Optional.of(sucursalMock));
+        when(catalogoProductos.buscarPorIds(anyList())).thenReturn(Map.of(3L, arroz, 1L, leche));
+        List<List<Long>> ordenes = new ArrayList<>();
+        when(inventarioRepository.descontarStock(eq(sucursalId), anyMap())).thenAnswer(i -> {
+            ordenes.add(List.copyOf(i.<Map<Long, Integer>>getArgument(1).keySet()));
+            return new int[]{1, 1};
+        });
+        when(ventaRepository.save(any(Venta.class))).thenAnswer(i -> i.getArgument(0));
+
+        ventaService.registrarVenta(requestDTO);
+
+        // Dos ventas con los mismos productos bloquean las filas en el mismo orden y no se interbloquean
+        assertEquals(List.of(List.of(1L, 3L)), ordenes);
+        verify(inventarioRepository).descontarStock(sucursalId, Map.of(1L, 2, 3L, 2));
     }
 
     @Test
@@ -96,8 +138,10 @@ class VentaServiceTest {
         VentaRequestDTO requestDTO = new VentaRequestDTO(sucursalId, List.of(new DetalleRequestDTO(productoId, 5)));
 
         when(sucursalRepository.findById(sucursalId)).thenReturn(Optional.of(sucursalMock));
-        when(productoRepository.findAllById(anyList())).thenReturn(List.of(productoMock));
-        when(inventarioRepository.findBySucursalAndProducto(sucursalMock, productoMock)).thenReturn(Optional.of(inventarioMock));
+        when(catalogoProductos.buscarPorIds(anyList())).thenReturn(Map.of(productoId, productoMock));
+        // El UPDATE condicional no afecta ninguna fila porque cantidad < solicitado
+        when(inventarioRepository.descontarStock(sucursalId, Map.of(productoId, 5))).thenReturn(new int[]{0});
+        when(inventarioRepository.findMapaBySucursalIdAndProductoIds(sucursalId, List.of(productoId))).thenReturn(Map.of(productoId, inventarioMock));
 
         // Regla de negocio: no se permite vender más unidades de las disponibles
         IllegalStateException exception = assertThrows(IllegalStateException.class, () -> ventaService.registrarVenta(requestDTO));
@@ -105,6 +149,7 @@ class VentaServiceTest {
         assertTrue(exception.getMessage().contains("Stock insuficiente"));
 
         verify(ventaRepository, never()).save(any());
+        verify(metricasVentas).stockInsuficiente(sucursalId);
     }
 
     @Test
@@ -126,15 +171,16 @@ class VentaServiceTest {
 
         //Simulamos que la suscursal y el producto existen
         when(sucursalRepository.findById(sucursalId)).thenReturn(Optional.of(sucursalMock));
-        when(productoRepository.findAllById(anyList())).thenReturn(List.of(productoMock));
+        when(catalogoProductos.buscarPorIds(anyList())).thenReturn(Map.of(productoId, productoMock));
         //Simulamos que el producto no tiene registro de inventario en esa sucursal
-        when(inventarioRepository.findBySucursalAndProducto(sucursalMock, productoMock)).thenReturn(Optional.empty());
+        when(inventarioRepository.descontarStock(sucursalId, Map.of(productoId, 1))).thenReturn(new int[]{0});
+        when(inventarioRepository.findMapaBySucursalIdAndProductoIds(sucursalId, List.of(productoId))).thenReturn(Map.of());
 
         // Verificamos y lanzamos IllegalStateException
         IllegalStateException exception = assertThrows(IllegalStateException.class, () -> ventaService.registrarVenta(request));
 
         //Validamos que el mensaje de error sea el esperado para el usuario
-        assertTrue(exception.getMessage().contains("El producto no está en el inventario"));
+        assertTrue(exception.getMessage().contains("no está registrado en esta sucursal"));
 
         //Verificamos que nunca se llamó al save del repositorio
         verify(ventaRepository, never()).save(any());
@@ -150,6 +196,7 @@ class VentaServiceTest {
         Producto producto = Producto.builder()
                 .id(1L)
                 .nombreProducto("Leche")
+                .precioProducto(new BigDecimal("2.50"))
                 .build();
 
         com.example.supermercado_ventas_api.models.VentaDetalle detalle =
@@ -161,6 +208,8 @@ class VentaServiceTest {
         Venta ventaMock = Venta.builder()
                 .id(ventaId).
                 activa(true)
+                .fecha(LocalDateTime.of(2026, 1, 15, 10, 30))
+                .totalVenta(new BigDecimal("12.50"))
                 .sucursal(sucursal)
                 .detalles(List.of(detalle))
                 .build();
@@ -172,15 +221,17 @@ class VentaServiceTest {
                 .build();
 
         when(ventaRepository.findById(ventaId)).thenReturn(Optional.of(ventaMock));
-        when(inventarioRepository.findBySucursalAndProducto(sucursal, producto)).thenReturn(Optional.of(inventarioMock));
+        when(inventarioRepository.findMapaBySucursalIdAndProductoIds(1L, List.of(1L))).thenReturn(Map.of(1L, inventarioMock));
 
         ventaService.borrarVentaLogica(ventaId);
 
         assertFalse(ventaMock.getActiva(), "La venta debe estar anulada (activa = false)");
         assertEquals(15, inventarioMock.getCantidad(), "El stock debe haber subido de 10 a 15");
 
-        verify(inventarioRepository).save(inventarioMock);
+        verify(inventarioRepository).saveAll(anyIterable());
         verify(ventaRepository).save(ventaMock);
+        verify(ventaDiariaRepository).acumular(1L, LocalDate.of(2026, 1, 15), new BigDecimal("-12.50"), -1);
+        verify(eventPublisher).publishEvent(any(VentaAnuladaEvent.class));
     }
 
 